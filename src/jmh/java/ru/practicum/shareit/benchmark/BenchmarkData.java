@@ -0,0 +1,138 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Данные для бенчмарков: сущности в том виде, в каком их отдает Hibernate, и заглушки репозиториев,
+ * возвращающие заранее построенные списки без базы.
+ */
+final class BenchmarkData {
+    static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id) {
+        return new User(id, "User " + id, "user" + id + "@test.com");
+    }
+
+    static List<Item> items(int count, User owner) {
+        List<Item> items = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            items.add(new Item(id, "Item " + id, "Description of item " + id, true, owner, null));
+        }
+        return items;
+    }
+
+    /**
+     * Подтвержденные бронирования по часу, поровну до и после {@link #NOW}.
+     */
+    static List<Booking> bookings(int count, List<Item> items) {
+        List<Booking> bookings = new ArrayList<>(count);
+        LocalDateTime first = NOW.minusHours(count / 2);
+        for (long id = 1; id <= count; id++) {
+            LocalDateTime start = first.plusHours(id - 1);
+            bookings.add(new Booking(id, start, start.plusMinutes(50), items.get((int) (id % items.size())),
+                    user(id % 1000 + 2), BookingStatus.APPROVED));
+        }
+        return bookings;
+    }
+
+    static List<Comment> comments(List<Item> items, int perItem) {
+        List<Comment> comments = new ArrayList<>(items.size() * perItem);
+        long id = 1;
+        for (Item item : items) {
+            for (int i = 0; i < perItem; i++, id++) {
+                comments.add(new Comment(id, "Comment " + id, item, user(id % 1000 + 2), NOW.minusDays(i + 1)));
+            }
+        }
+        return comments;
+    }
+
+    /**
+     * Строки запроса последнего и следующего бронирования: по одной LAST и NEXT на вещь.
+     */
+    static List<ItemBookingView> lastAndNext(List<Item> items) {
+        List<ItemBookingView> views = new ArrayList<>(items.size() * 2);
+        long id = 1;
+        for (Item item : items) {
+            views.add(new View(item.getId(), ItemBookingView.LAST, id++, NOW.minusDays(2), NOW.minusDays(1)));
+            views.add(new View(item.getId(), ItemBookingView.NEXT, id++, NOW.plusDays(1), NOW.plusDays(2)));
+        }
+        return views;
+    }
+
+    /**
+     * Заглушка интерфейса: методы из {@code answers} отвечают по имени, остальные бросают исключение.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+
+    private record View(Long itemId, String kind, Long id, LocalDateTime start, LocalDateTime end)
+            implements ItemBookingView {
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public String getKind() {
+            return kind;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        @Override
+        public String getStatus() {
+            return BookingStatus.APPROVED.name();
+        }
+
+        @Override
+        public Long getBookerId() {
+            return 2L;
+        }
+
+        @Override
+        public String getBookerName() {
+            return "Booker";
+        }
+
+        @Override
+        public String getBookerEmail() {
+            return "booker@test.com";
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск последнего и следующего бронирования вещи относительно текущего момента в {@link BookingTimelineIndex}
+ * вместе с данными арендатора, которые хранятся в таймлайне. Момент {@code now} перебирается по всей ленте,
+ * чтобы не измерять один удачный случай.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingTimelineBenchmark {
+    private static final int INSTANTS = 1024;
+
+    @Param({"10", "1000", "100000"})
+    private int bookings;
+
+    private BookingTimelineIndex index;
+    private final LocalDateTime[] instants = new LocalDateTime[INSTANTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Item> items = BenchmarkData.items(1, BenchmarkData.user(1));
+        List<Booking> timeline = BenchmarkData.bookings(bookings, items);
+        BookingRepository bookingRepository = BenchmarkData.stub(BookingRepository.class,
+                Map.of("findAllWithBookerByItemIdAndStatus", args -> timeline));
+        index = new BookingTimelineIndex(bookingRepository, true, Long.MAX_VALUE, 0, new SimpleMeterRegistry());
+        LocalDateTime first = timeline.get(0).getStart().minusHours(1);
+        for (int i = 0; i < INSTANTS; i++) {
+            instants[i] = first.plusMinutes((long) i * (bookings + 2) * 60 / INSTANTS);
+        }
+        index.findLastAndNext(1L, BenchmarkData.NOW);
+    }
+
+    @Benchmark
+    public List<ItemBookingView> lastAndNext() {
+        return index.findLastAndNext(1L, instant());
+    }
+
+    private LocalDateTime instant() {
+        next = (next + 1) & (INSTANTS - 1);
+        return instants[next];
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+import ru.practicum.shareit.common.metrics.RepositoryMetricsInterceptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена метрик на вызов: прокси с перехватчиком репозитория и аспект {@code @Timed} против того же прокси
+ * без них, с включенными гистограммами. Для сравнения: самый быстрый запрос к H2 в тестах занимает
+ * десятки микросекунд, к PostgreSQL по сети — сотни.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+    private Lookup plainInterfaceProxy;
+    private Lookup repositoryInterceptor;
+    private Lookup plainClassProxy;
+    private Lookup timedAspect;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = histogramRegistry();
+        ProxyFactory plain = new ProxyFactory(new InMemoryLookup());
+        plain.addInterface(Lookup.class);
+        plainInterfaceProxy = (Lookup) plain.getProxy();
+        ProxyFactory instrumented = new ProxyFactory(new InMemoryLookup());
+        instrumented.addInterface(Lookup.class);
+        instrumented.addAdvice(new RepositoryMetricsInterceptor(Lookup.class, meterRegistry));
+        repositoryInterceptor = (Lookup) instrumented.getProxy();
+
+        ProxyFactory plainClass = new ProxyFactory(new TimedLookup());
+        plainClass.setProxyTargetClass(true);
+        plainClassProxy = (Lookup) plainClass.getProxy();
+        AspectJProxyFactory timed = new AspectJProxyFactory(new TimedLookup());
+        timed.setProxyTargetClass(true);
+        timed.addAspect(new TimedAspect(meterRegistry));
+        timedAspect = timed.getProxy();
+    }
+
+    @Benchmark
+    public List<Long> plainInterfaceProxy() {
+        return plainInterfaceProxy.find(id++);
+    }
+
+    @Benchmark
+    public List<Long> repositoryInterceptor() {
+        return repositoryInterceptor.find(id++);
+    }
+
+    @Benchmark
+    public List<Long> plainClassProxy() {
+        return plainClassProxy.find(id++);
+    }
+
+    @Benchmark
+    public List<Long> timedAspect() {
+        return timedAspect.find(id++);
+    }
+
+    private static MeterRegistry histogramRegistry() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        return meterRegistry;
+    }
+
+    public interface Lookup {
+        List<Long> find(long id);
+    }
+
+    public static class InMemoryLookup implements Lookup {
+        @Override
+        public List<Long> find(long id) {
+            return List.of(id, id + 1);
+        }
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public static class TimedLookup implements Lookup {
+        @Override
+        public List<Long> find(long id) {
+            return List.of(id, id + 1);
+        }
+    }
+}
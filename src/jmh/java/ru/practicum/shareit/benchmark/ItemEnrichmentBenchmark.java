@@ -0,0 +1,67 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Работа {@code ItemServiceImpl.findAllEnrichedByUser} в памяти: группировка строк последнего и следующего
+ * бронирования и комментариев по вещам и сборка DTO. Репозитории заменены заглушками, поэтому в числах нет базы.
+ * {@code bookings} — число строк бронирований (по две на вещь), комментариев по одному на вещь.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemEnrichmentBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int bookings;
+
+    private ItemServiceImpl itemService;
+    private SharerPrincipal owner;
+
+    @Setup
+    public void setUp() {
+        owner = new SharerPrincipal(1L, "User 1", "user1@test.com");
+        List<Item> items = BenchmarkData.items(Math.max(1, bookings / 2), BenchmarkData.user(1));
+        List<ItemBookingView> views = BenchmarkData.lastAndNext(items);
+        List<Comment> comments = BenchmarkData.comments(items, 1);
+        ItemRepository itemRepository = BenchmarkData.stub(ItemRepository.class,
+                Map.of("findAllByOwnerId", args -> items));
+        BookingRepository bookingRepository = BenchmarkData.stub(BookingRepository.class,
+                Map.of("findLastAndNextApprovedByItemIds", args -> views));
+        CommentRepository commentRepository = BenchmarkData.stub(CommentRepository.class,
+                Map.of("findAllByItemIdIn", args -> comments));
+        itemService = new ItemServiceImpl(itemRepository, commentRepository, null, new CommentMapper(),
+                bookingRepository, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<ItemDto> findAllEnrichedByUser() {
+        return itemService.findAllEnrichedByUser(owner);
+    }
+}
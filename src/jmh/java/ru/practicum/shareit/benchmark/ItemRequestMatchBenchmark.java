@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.match.ItemRequestMatch;
+import ru.practicum.shareit.request.match.ItemRequestMatchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подбор открытых запросов для новой вещи в {@link ItemRequestMatchIndex} при {@code requests} открытых
+ * запросах. Частоты слов распределены по Ципфу, поэтому в текстах встречаются и очень частые, и редкие слова;
+ * тексты вещей перебираются по кругу, чтобы не измерять один удачный случай.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ItemRequestMatchBenchmark {
+    private static final int USERS = 10_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_REQUEST = 6;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    private int requests;
+
+    private ItemRequestMatchIndex index;
+    private final String[] queries = new String[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "слово" + Integer.toString(i, 36) + "к";
+        }
+        double[] cumulative = zipf(VOCABULARY);
+        index = new ItemRequestMatchIndex(BenchmarkData.stub(ItemRequestRepository.class, Map.of()), true, 500);
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = BenchmarkData.user(i + 1);
+        }
+        for (long id = 1; id <= requests; id++) {
+            index.add(new ItemRequest(id, text(words, cumulative, random), users[random.nextInt(USERS)], null));
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = text(words, cumulative, random);
+        }
+    }
+
+    @Benchmark
+    public List<ItemRequestMatch> match() {
+        next = (next + 1) & (QUERIES - 1);
+        return index.match(queries[next], 1L, 10);
+    }
+
+    private static String text(String[] words, double[] cumulative, Random random) {
+        StringBuilder text = new StringBuilder("Нужна");
+        for (int i = 0; i < WORDS_PER_REQUEST; i++) {
+            int position = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(' ').append(words[Math.min(position < 0 ? -position - 1 : position, words.length - 1)]);
+        }
+        return text.toString();
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.load.DatasetGenerator;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск подстроки на {@code items} вещей: режим {@code like} (запрос {@code ItemRepository.search} —
+ * {@code LOWER(...) LIKE '%text%'} по всей таблице) против режима {@code index} ({@link ItemSearchIndex} по
+ * триграммам и загрузка страницы по id). База — H2 в памяти с набором {@link DatasetGenerator}; запросы идут
+ * через JDBC тем же SQL, что готовит Hibernate, без слоя JPA в обоих режимах. {@code text}: частое слово
+ * (около четверти вещей), редкое (около процента) и отсутствующее.
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ItemSearchBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+    private static final int PAGE = 20;
+    private static final String COLUMNS = "SELECT id, name, description, available, owner_id, request_id FROM items ";
+
+    @Param({"1000000"})
+    private int items;
+
+    @Param({"дрель", "гамак", "экскаватор"})
+    private String text;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ItemSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:item-search;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "", true);
+        DatasetGenerator.initSchema(dataSource);
+        new DatasetGenerator(dataSource, DatasetGenerator.Spec.of(10_000, items, 0, 0)).generate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        long total = items;
+        ItemRepository repository = BenchmarkData.stub(ItemRepository.class, Map.of("findAll", args -> {
+            Pageable pageable = (Pageable) args[0];
+            List<Item> page = jdbcTemplate.query(COLUMNS + "ORDER BY id LIMIT ? OFFSET ?", ItemSearchBenchmark::item,
+                    pageable.getPageSize(), pageable.getOffset());
+            return new PageImpl<>(page, pageable, total);
+        }));
+        index = new ItemSearchIndex(repository, ItemSearchMode.INDEX);
+        index.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Item> like() {
+        String pattern = "%" + text.toLowerCase() + "%";
+        return jdbcTemplate.query(COLUMNS + "WHERE available = true AND (LOWER(name) LIKE ? OR LOWER(description) "
+                + "LIKE ?) ORDER BY id LIMIT ?", ItemSearchBenchmark::item, pattern, pattern, PAGE);
+    }
+
+    @Benchmark
+    public List<Item> index() {
+        List<Long> page = index.search(text, 0, PAGE);
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(page.size(), "?"));
+        return jdbcTemplate.query(COLUMNS + "WHERE id IN (" + placeholders + ")", ItemSearchBenchmark::item,
+                page.toArray());
+    }
+
+    private static Item item(ResultSet row, int rowNum) throws SQLException {
+        return new Item(row.getLong("id"), row.getString("name"), row.getString("description"),
+                row.getBoolean("available"), BenchmarkData.user(row.getLong("owner_id")), null);
+    }
+}
@@ -1,50 +1,126 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionsResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.export.BookingExportService;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.CurrentUser;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.sse.SseHub;
+import ru.practicum.shareit.common.sse.SseTopic;
 
 import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
+    private final SseHub sseHub;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingExportService bookingExportService, SseHub sseHub) {
         this.bookingService = bookingService;
+        this.bookingExportService = bookingExportService;
+        this.sseHub = sseHub;
     }
 
     @PostMapping
-    public BookingDto create(@Valid @RequestBody BookingCreateDto bookingCreateDto, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.create(bookingCreateDto, userId);
+    public BookingDto create(@Valid @RequestBody BookingCreateDto bookingCreateDto, @CurrentUser SharerPrincipal user) {
+        return bookingService.create(bookingCreateDto, user);
+    }
+
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(
+            @RequestBody @NotEmpty @Size(max = 500) List<BookingCreateDto> bookingCreateDtos,
+            @CurrentUser SharerPrincipal user) {
+        return bookingService.createBatch(bookingCreateDtos, user);
     }
 
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@PathVariable Long bookingId,
                             @RequestParam boolean approved,
-                            @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.approve(bookingId, userId, approved);
+                            @CurrentUser SharerPrincipal user) {
+        return bookingService.approve(bookingId, user.id(), approved);
+    }
+
+    @PatchMapping("/owner/decisions")
+    public BookingDecisionsResultDto decide(
+            @RequestBody @NotEmpty @Size(max = 500) List<@Valid @NotNull BookingDecisionDto> decisions,
+            @CurrentUser SharerPrincipal user) {
+        return bookingService.decide(decisions, user);
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDto findById(@PathVariable Long bookingId,
-                             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.findById(bookingId, userId);
+    public ResponseEntity<BookingDto> findById(@PathVariable Long bookingId,
+                                               @CurrentUser SharerPrincipal user,
+                                               WebRequest request) {
+        String eTag = bookingService.getBookingETag(bookingId, user.id());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(bookingService.findById(bookingId, user.id()));
     }
 
     @GetMapping
-    public List<BookingDto> findAllByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @RequestParam(defaultValue = "ALL") BookingStatus state) {
-        return bookingService.findAllByBooker(userId, state);
+    public ResponseEntity<List<BookingDto>> findAllByBooker(@CurrentUser SharerPrincipal user,
+                                                            @RequestParam(defaultValue = "ALL") BookingStatus state,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "100") @Positive @Max(1000) int limit) {
+        return toResponse(bookingService.findAllByBooker(user, state, cursor, limit));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestParam(defaultValue = "ALL") BookingStatus state) {
-        return bookingService.findAllByOwner(userId, state);
+    public ResponseEntity<List<BookingDto>> findAllByOwner(@CurrentUser SharerPrincipal user,
+                                                           @RequestParam(defaultValue = "ALL") BookingStatus state,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "100") @Positive @Max(1000) int limit) {
+        return toResponse(bookingService.findAllByOwner(user, state, cursor, limit));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@CurrentUser SharerPrincipal user) {
+        StreamingResponseBody body = out -> bookingExportService.exportByOwner(user.id(), out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@CurrentUser SharerPrincipal user) {
+        return sseHub.subscribe(SseTopic.BOOKINGS, user.id());
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
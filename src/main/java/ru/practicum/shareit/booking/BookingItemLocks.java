@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые блокировки по id вещи для баз без ограничения {@code bookings_no_overlap} (H2): проверка пересечения
+ * и вставка бронирования одной вещи выполняются последовательно, бронирования разных вещей не мешают друг другу.
+ * В PostgreSQL пересечения отсекает само ограничение, в том числе между экземплярами приложения, поэтому там
+ * блокировки выключены ({@code shareit.booking.item-locks.enabled=false}) и бронирование вставляется сразу.
+ */
+@Component
+public class BookingItemLocks {
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final boolean enabled;
+
+    public BookingItemLocks(@Value("${shareit.booking.item-locks.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(itemId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STRIPES);
+    }
+}
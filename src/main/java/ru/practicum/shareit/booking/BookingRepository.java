@@ -1,46 +1,158 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-            Long bookerId, LocalDateTime now, LocalDateTime now2, Pageable pageable);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(
-            Long bookerId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(
-            Long bookerId, LocalDateTime now, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 AND b.status = ?2 ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 AND b.start < ?2 AND b.end > ?2 ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdAndCurrent(Long ownerId, LocalDateTime now, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 AND b.end < ?2 ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdAndPast(Long ownerId, LocalDateTime now, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 AND b.start > ?2 ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdAndFuture(Long ownerId, LocalDateTime now, Pageable pageable);
+    String SEEK = " AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))" +
+            " ORDER BY b.start DESC, b.id DESC";
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    @Query("SELECT b.version AS bookingVersion, i.version AS itemVersion, u.version AS bookerVersion, " +
+            "u.id AS bookerId, i.owner.id AS ownerId FROM Booking b JOIN b.item i JOIN b.booker u WHERE b.id = :id")
+    Optional<BookingVersionView> findVersionsById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByOwner(@Param("ownerId") Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids " +
+            "AND b.status = :status " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    List<Booking> lockByIdsAndStatusAndOwner(@Param("ids") Collection<Long> ids,
+                                             @Param("status") BookingStatus status,
+                                             @Param("ownerId") Long ownerId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 WHERE b.id IN :ids " +
+            "AND b.status = :expected " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int updateStatusIfOwnedAndInStatus(@Param("ids") Collection<Long> ids,
+                                       @Param("ownerId") Long ownerId,
+                                       @Param("expected") BookingStatus expected,
+                                       @Param("status") BookingStatus status);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId" + SEEK)
+    List<Booking> findPageByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.status = :status" + SEEK)
+    List<Booking> findPageByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.start < :now AND b.end > :now" + SEEK)
+    List<Booking> findCurrentPageByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.end < :now" + SEEK)
+    List<Booking> findPastPageByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.start > :now" + SEEK)
+    List<Booking> findFuturePageByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId" + SEEK)
+    List<Booking> findPageByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.status = :status" + SEEK)
+    List<Booking> findPageByOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.start < :now AND b.end > :now" + SEEK)
+    List<Booking> findCurrentPageByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.end < :now" + SEEK)
+    List<Booking> findPastPageByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.start > :now" + SEEK)
+    List<Booking> findFuturePageByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
     @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId " +
             "AND b.item.id = :itemId " +
@@ -64,10 +176,63 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
             Long itemId, BookingStatus status, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds " +
-            "AND b.status = :status " +
-            "ORDER BY b.item.id, b.start ASC")
-    List<Booking> findAllByItemIdsAndStatusOrderByStartAsc(
-            @Param("itemIds") List<Long> itemIds,
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.item.id = :itemId " +
+            "AND b.status IN :statuses " +
+            "AND b.start < :end " +
+            "AND b.end > :start")
+    boolean existsOverlapping(
+            @Param("itemId") Long itemId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("statuses") Collection<BookingStatus> statuses);
+
+    @Query("SELECT b.start AS start, b.end AS end FROM Booking b WHERE b.item.id = :itemId " +
+            "AND b.status IN :statuses " +
+            "AND b.start < :to " +
+            "AND b.end > :from " +
+            "ORDER BY b.start")
+    List<BookingInterval> findBusyIntervals(
+            @Param("itemId") Long itemId,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b WHERE b.item.id IN :itemIds " +
+            "AND b.status IN :statuses " +
+            "AND b.start < :to " +
+            "AND b.end > :from")
+    List<ItemBookingInterval> findBusyIntervalsByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker WHERE b.item.id = :itemId AND b.status = :status")
+    List<Booking> findAllWithBookerByItemIdAndStatus(
+            @Param("itemId") Long itemId,
             @Param("status") BookingStatus status);
+
+    /**
+     * Последнее и следующее подтверждённые бронирования каждой вещи. Для каждой вещи и вида берётся одна
+     * строка подзапросом {@code ORDER BY ... LIMIT 1} по индексу, как в {@code ItemRepository.VERSIONS},
+     * а не нумерация всех бронирований вещи оконной функцией.
+     */
+    @Query(value = "SELECT i.id AS \"itemId\", 'LAST' AS \"kind\", b.id AS \"id\", " +
+            "b.start_date AS \"start\", b.end_date AS \"end\", b.status AS \"status\", " +
+            "u.id AS \"bookerId\", u.name AS \"bookerName\", u.email AS \"bookerEmail\" " +
+            "FROM items i " +
+            "JOIN bookings b ON b.id = (SELECT lb.id FROM bookings lb WHERE lb.item_id = i.id " +
+            "AND lb.status = 'APPROVED' AND lb.end_date < :now ORDER BY lb.end_date DESC, lb.id DESC LIMIT 1) " +
+            "JOIN users u ON u.id = b.booker_id " +
+            "WHERE i.id IN (:itemIds) " +
+            "UNION ALL " +
+            "SELECT i.id, 'NEXT', b.id, b.start_date, b.end_date, b.status, u.id, u.name, u.email " +
+            "FROM items i " +
+            "JOIN bookings b ON b.id = (SELECT nb.id FROM bookings nb WHERE nb.item_id = i.id " +
+            "AND nb.status = 'APPROVED' AND nb.start_date > :now ORDER BY nb.start_date, nb.id LIMIT 1) " +
+            "JOIN users u ON u.id = b.booker_id " +
+            "WHERE i.id IN (:itemIds)", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextApprovedByItemIds(
+            @Param("itemIds") List<Long> itemIds,
+            @Param("now") LocalDateTime now);
 }
@@ -1,19 +1,30 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionsResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.SharerPrincipal;
 
 import java.util.List;
 
 public interface BookingService {
-    BookingDto create(BookingCreateDto bookingCreateDto, Long userId);
+    BookingDto create(BookingCreateDto bookingCreateDto, SharerPrincipal principal);
+
+    List<BookingBatchResultDto> createBatch(List<BookingCreateDto> bookingCreateDtos, SharerPrincipal principal);
 
     BookingDto approve(Long bookingId, Long userId, boolean approved);
 
+    BookingDecisionsResultDto decide(List<BookingDecisionDto> decisions, SharerPrincipal principal);
+
     BookingDto findById(Long bookingId, Long userId);
 
-    List<BookingDto> findAllByBooker(Long userId, BookingStatus state);
+    String getBookingETag(Long bookingId, Long userId);
+
+    BookingPage findAllByBooker(SharerPrincipal principal, BookingStatus state, String cursor, int limit);
 
-    List<BookingDto> findAllByOwner(Long userId, BookingStatus state);
+    BookingPage findAllByOwner(SharerPrincipal principal, BookingStatus state, String cursor, int limit);
 }
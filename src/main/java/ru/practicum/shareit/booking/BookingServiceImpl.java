@@ -1,40 +1,81 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionsResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingInterval;
 import ru.practicum.shareit.booking.exceptions.*;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
+import ru.practicum.shareit.common.ETags;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+import ru.practicum.shareit.common.sse.SseHub;
+import ru.practicum.shareit.common.sse.SseTopic;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.UserService;
-import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BookingServiceImpl implements BookingService {
+    public static final String BOOKING_EVENT = "booking";
+
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final String OVERLAP_CONSTRAINT = "bookings_no_overlap";
 
     private final ItemService itemService;
-    private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final BookingItemLocks bookingItemLocks;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final SseHub sseHub;
 
-    public BookingServiceImpl(ItemService itemService, UserService userService, BookingRepository bookingRepository) {
+    public BookingServiceImpl(ItemService itemService, BookingRepository bookingRepository,
+                              BookingTimelineIndex bookingTimelineIndex, BookingItemLocks bookingItemLocks,
+                              ItemAvailabilityService itemAvailabilityService, SseHub sseHub) {
         this.itemService = itemService;
-        this.userService = userService;
         this.bookingRepository = bookingRepository;
+        this.bookingTimelineIndex = bookingTimelineIndex;
+        this.bookingItemLocks = bookingItemLocks;
+        this.itemAvailabilityService = itemAvailabilityService;
+        this.sseHub = sseHub;
     }
 
     @Override
-    public BookingDto create(BookingCreateDto bookingCreateDto, Long userId) {
-        User user = UserMapper.toUser(userService.findById(userId));
+    public BookingDto create(BookingCreateDto bookingCreateDto, SharerPrincipal principal) {
+        Long userId = principal.id();
+        User user = principal.toUser();
         Item item = itemService.findById(bookingCreateDto.getItemId());
 
         if (!Item.isAvailable(item)) {
@@ -49,7 +90,185 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(user);
         booking.setStatus(BookingStatus.WAITING);
 
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingItemLocks.isEnabled()
+                ? bookingItemLocks.withItemLock(item.getId(), () -> saveIfFree(booking))
+                : insert(booking);
+        afterSave(savedBooking);
+        return BookingMapper.toBookingDto(savedBooking);
+    }
+
+    @Override
+    public List<BookingBatchResultDto> createBatch(List<BookingCreateDto> bookingCreateDtos, SharerPrincipal principal) {
+        Long userId = principal.id();
+        User user = principal.toUser();
+        Set<Long> itemIds = bookingCreateDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingCreateDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemIds.isEmpty() ? Map.of() : itemService.findAllByIds(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingCreateDtos.size()];
+        Map<Integer, Booking> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < bookingCreateDtos.size(); i++) {
+            BookingCreateDto dto = bookingCreateDtos.get(i);
+            Item item = dto == null || dto.getItemId() == null ? null : items.get(dto.getItemId());
+            if (dto == null || dto.getItemId() == null) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.BAD_REQUEST, "Не указан предмет бронирования");
+            } else if (item == null) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.NOT_FOUND,
+                        String.format("Предмет с id %d не найден", dto.getItemId()));
+            } else if (!Item.isAvailable(item)) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.BAD_REQUEST,
+                        String.format("Предмет с id %d недоступен для бронирования", item.getId()));
+            } else if (item.getOwner().getId().equals(userId)) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.FORBIDDEN,
+                        "Владелец не может бронировать свою вещь");
+            } else if (dto.getStart() == null || dto.getEnd() == null || !dto.getEnd().isAfter(dto.getStart())) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.BAD_REQUEST,
+                        "Окончание бронирования должно быть позже начала");
+            } else {
+                Booking booking = BookingMapper.toBooking(dto, item);
+                booking.setBooker(user);
+                candidates.put(i, booking);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return List.of(results);
+        }
+        if (!bookingItemLocks.isEnabled()) {
+            saveFreeBatch(candidates, results);
+            return List.of(results);
+        }
+        // блокировка на группу бронирований одной вещи, а не на весь пакет: пакет не ждет всех своих вещей сразу
+        Map<Long, Map<Integer, Booking>> candidatesByItem = new LinkedHashMap<>();
+        candidates.forEach((index, booking) -> candidatesByItem
+                .computeIfAbsent(booking.getItem().getId(), id -> new LinkedHashMap<>())
+                .put(index, booking));
+        candidatesByItem.forEach((itemId, group) ->
+                bookingItemLocks.withItemLock(itemId, () -> saveFreeBatch(group, results)));
+        return List.of(results);
+    }
+
+    /**
+     * Одна проверка занятости и одна пакетная вставка на все кандидаты; без ограничения {@code bookings_no_overlap}
+     * вызывается под блокировкой их вещи. Если вставка отвергнута, бронирования сохраняются по одному.
+     */
+    private Void saveFreeBatch(Map<Integer, Booking> candidates, BookingBatchResultDto[] results) {
+        LocalDateTime from = candidates.values().stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.values().stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Set<Long> itemIds = candidates.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        Map<Long, List<BookingInterval>> busyByItem = new HashMap<>();
+        for (ItemBookingInterval interval : bookingRepository.findBusyIntervalsByItemIds(itemIds, ACTIVE_STATUSES, from, to)) {
+            busyByItem.computeIfAbsent(interval.getItemId(), id -> new ArrayList<>()).add(interval);
+        }
+
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        Map<Long, List<Booking>> acceptedByItem = new HashMap<>();
+        for (Map.Entry<Integer, Booking> candidate : candidates.entrySet()) {
+            Booking booking = candidate.getValue();
+            Long itemId = booking.getItem().getId();
+            boolean overlaps = busyByItem.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(interval -> overlaps(booking, interval.getStart(), interval.getEnd()))
+                    || acceptedByItem.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(other -> overlaps(booking, other.getStart(), other.getEnd()));
+            if (overlaps) {
+                results[candidate.getKey()] = BookingBatchResultDto.failed(candidate.getKey(), HttpStatus.CONFLICT,
+                        String.format("Предмет с id %d уже забронирован на эти даты", itemId));
+            } else {
+                accepted.put(candidate.getKey(), booking);
+                acceptedByItem.computeIfAbsent(itemId, id -> new ArrayList<>()).add(booking);
+            }
+        }
+
+        try {
+            bookingRepository.saveAll(accepted.values());
+        } catch (DataIntegrityViolationException e) {
+            accepted.values().forEach(booking -> booking.setId(null));
+            saveOneByOne(accepted, results);
+            return null;
+        }
+        accepted.forEach((index, booking) -> {
+            afterSave(booking);
+            results[index] = BookingBatchResultDto.created(index, BookingMapper.toBookingDto(booking));
+        });
+        return null;
+    }
+
+    private void saveOneByOne(Map<Integer, Booking> accepted, BookingBatchResultDto[] results) {
+        accepted.forEach((index, booking) -> {
+            try {
+                Booking savedBooking = bookingItemLocks.isEnabled() ? saveIfFree(booking) : insert(booking);
+                afterSave(savedBooking);
+                results[index] = BookingBatchResultDto.created(index, BookingMapper.toBookingDto(savedBooking));
+            } catch (BookingOverlapException e) {
+                results[index] = BookingBatchResultDto.failed(index, HttpStatus.CONFLICT, e.getMessage());
+            }
+        });
+    }
+
+    private static boolean overlaps(Booking booking, LocalDateTime start, LocalDateTime end) {
+        return booking.getStart().isBefore(end) && booking.getEnd().isAfter(start);
+    }
+
+    /**
+     * В транзакции кэши обновляются после фиксации: до нее другие запросы еще читают старое состояние и вернули бы
+     * его в кэш, а при откате изменения в кэше не было бы в базе. Доступность сбрасывается и сразу — загрузка,
+     * начатая до записи, не должна пережить фиксацию.
+     */
+    private void afterSave(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Runnable refresh = () -> {
+            bookingTimelineIndex.onSaved(booking);
+            itemAvailabilityService.evict(itemId);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh.run();
+            return;
+        }
+        itemAvailabilityService.evict(itemId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh.run();
+            }
+        });
+    }
+
+    private BookingDto publishDecision(Booking booking) {
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+        sseHub.sendTo(SseTopic.BOOKINGS, booking.getBooker().getId(), BOOKING_EVENT, booking.getId(), bookingDto);
+        return bookingDto;
+    }
+
+    /**
+     * Проверка пересечения и вставка; без ограничения {@code bookings_no_overlap} вызывается под блокировкой вещи.
+     */
+    private Booking saveIfFree(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (bookingRepository.existsOverlapping(itemId, booking.getStart(), booking.getEnd(), ACTIVE_STATUSES)) {
+            throw new BookingOverlapException(String.format("Предмет с id %d уже забронирован на эти даты", itemId));
+        }
+        return insert(booking);
+    }
+
+    /**
+     * Вставка без предварительной проверки: пересечение отсекает ограничение {@code bookings_no_overlap}.
+     */
+    private Booking insert(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains(OVERLAP_CONSTRAINT)) {
+                throw new BookingOverlapException(String.format("Предмет с id %d уже забронирован на эти даты", itemId));
+            }
+            throw e;
+        }
     }
 
     private Booking findBookingById(Long bookingId) {
@@ -58,22 +277,67 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto approve(Long bookingId, Long userId, boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated = bookingRepository.updateStatusIfOwnedAndInStatus(
+                List.of(bookingId), userId, BookingStatus.WAITING, status);
         Booking booking = findBookingById(bookingId);
 
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new BookingAccessDeniedException("Только владелец вещи может подтверждать бронирование");
+        if (updated == 0) {
+            if (!booking.getItem().getOwner().getId().equals(userId)) {
+                throw new BookingAccessDeniedException("Только владелец вещи может подтверждать бронирование");
+            }
+            throw new BookingStatusException("Бронирование уже обработано");
         }
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new BookingStatusException("Бронирование уже обработано");
+        afterSave(booking);
+        return publishDecision(booking);
+    }
+
+    @Override
+    @Transactional
+    public BookingDecisionsResultDto decide(List<BookingDecisionDto> decisions, SharerPrincipal principal) {
+        Long userId = principal.id();
+        Map<Long, Boolean> decisionById = new LinkedHashMap<>();
+        decisions.forEach(decision -> decisionById.putIfAbsent(decision.getBookingId(), decision.getApproved()));
+
+        List<Long> approvedIds = new ArrayList<>();
+        List<Long> rejectedIds = new ArrayList<>();
+        for (Booking locked : bookingRepository.lockByIdsAndStatusAndOwner(
+                decisionById.keySet(), BookingStatus.WAITING, userId)) {
+            (decisionById.get(locked.getId()) ? approvedIds : rejectedIds).add(locked.getId());
         }
+        applyDecision(approvedIds, userId, BookingStatus.APPROVED);
+        applyDecision(rejectedIds, userId, BookingStatus.REJECTED);
+
+        List<Long> decidedIds = new ArrayList<>(approvedIds);
+        decidedIds.addAll(rejectedIds);
+        if (!decidedIds.isEmpty()) {
+            bookingRepository.findAllByIdIn(decidedIds).forEach(booking -> {
+                afterSave(booking);
+                publishDecision(booking);
+            });
+        }
+        List<Long> skippedIds = decisionById.keySet().stream()
+                .filter(id -> !approvedIds.contains(id) && !rejectedIds.contains(id))
+                .toList();
+        return new BookingDecisionsResultDto(approvedIds, rejectedIds, skippedIds);
+    }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+    private void applyDecision(List<Long> bookingIds, Long userId, BookingStatus status) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        int updated = bookingRepository.updateStatusIfOwnedAndInStatus(bookingIds, userId, BookingStatus.WAITING, status);
+        if (updated != bookingIds.size()) {
+            throw new BookingConcurrentUpdateException(String.format(
+                    "Ожидалось обновление %d бронирований, обновлено %d", bookingIds.size(), updated));
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto findById(Long bookingId, Long userId) {
         Booking booking = findBookingById(bookingId);
 
@@ -85,69 +349,94 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> findAllByBooker(Long userId, BookingStatus state) {
-        userService.findById(userId);
+    @Transactional(readOnly = true)
+    public String getBookingETag(Long bookingId, Long userId) {
+        BookingVersionView versions = bookingRepository.findVersionsById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(String.format("Бронирование с id %d не найдено", bookingId)));
+
+        if (!versions.getBookerId().equals(userId) && !versions.getOwnerId().equals(userId)) {
+            throw new BookingAccessDeniedException("Доступ к бронированию запрещен");
+        }
+
+        return ETags.of(List.of(bookingId, versions.getBookingVersion(), versions.getItemVersion(),
+                versions.getBookerVersion()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingPage findAllByBooker(SharerPrincipal principal, BookingStatus state, String cursor, int limit) {
+        Long userId = principal.id();
+        BookingCursor position = BookingCursor.decode(cursor);
+        LocalDateTime start = position.start();
+        Long id = position.id();
         LocalDateTime now = LocalDateTime.now();
-        PageRequest pageRequest = PageRequest.of(0, Integer.MAX_VALUE, Sort.by("start").descending());
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
         List<Booking> bookings;
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId, pageRequest);
+                bookings = bookingRepository.findPageByBooker(userId, start, id, pageRequest);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                        userId, now, now, pageRequest);
+                bookings = bookingRepository.findCurrentPageByBooker(userId, now, start, id, pageRequest);
                 break;
             case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(userId, now, pageRequest);
+                bookings = bookingRepository.findPastPageByBooker(userId, now, start, id, pageRequest);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(userId, now, pageRequest);
+                bookings = bookingRepository.findFuturePageByBooker(userId, now, start, id, pageRequest);
                 break;
             case WAITING:
             case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, state, pageRequest);
+                bookings = bookingRepository.findPageByBookerAndStatus(userId, state, start, id, pageRequest);
                 break;
             default:
                 throw new BookingStatusException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return toPage(bookings, limit);
     }
 
     @Override
-    public List<BookingDto> findAllByOwner(Long userId, BookingStatus state) {
-        userService.findById(userId);
+    @Transactional(readOnly = true)
+    public BookingPage findAllByOwner(SharerPrincipal principal, BookingStatus state, String cursor, int limit) {
+        Long userId = principal.id();
+        BookingCursor position = BookingCursor.decode(cursor);
+        LocalDateTime start = position.start();
+        Long id = position.id();
         LocalDateTime now = LocalDateTime.now();
-        PageRequest pageRequest = PageRequest.of(0, Integer.MAX_VALUE, Sort.by("start").descending());
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
         List<Booking> bookings;
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByItemOwnerId(userId, pageRequest);
+                bookings = bookingRepository.findPageByOwner(userId, start, id, pageRequest);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdAndCurrent(userId, now, pageRequest);
+                bookings = bookingRepository.findCurrentPageByOwner(userId, now, start, id, pageRequest);
                 break;
             case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndPast(userId, now, pageRequest);
+                bookings = bookingRepository.findPastPageByOwner(userId, now, start, id, pageRequest);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndFuture(userId, now, pageRequest);
+                bookings = bookingRepository.findFuturePageByOwner(userId, now, start, id, pageRequest);
                 break;
             case WAITING:
             case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(userId, state, pageRequest);
+                bookings = bookingRepository.findPageByOwnerAndStatus(userId, state, start, id, pageRequest);
                 break;
             default:
                 throw new BookingStatusException("Unknown state: " + state);
         }
 
-        return bookings.stream()
+        return toPage(bookings, limit);
+    }
+
+    private BookingPage toPage(List<Booking> bookings, int limit) {
+        List<Booking> page = bookings.size() > limit ? bookings.subList(0, limit) : bookings;
+        String nextCursor = bookings.size() > limit ? BookingCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new BookingPage(page.stream()
                 .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Свободные интервалы вещи: занятые интервалы (ожидающие и подтвержденные бронирования) читаются одним
+ * диапазонным запросом и кэшируются по вещи вместе с покрытым диапазоном. Запрос внутри покрытого
+ * диапазона обслуживается из кэша, запись бронирования вещи сбрасывает ее кэш. Загружаемый диапазон
+ * расширяется до границ суток: окно по умолчанию начинается с текущего момента, и без выравнивания
+ * каждый следующий запрос выходил бы за уже загруженный диапазон. Кэш ограничен числом вещей,
+ * статистика публикуется как {@code cache.*{cache=item-availability}}.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class ItemAvailabilityService {
+    private static final Set<BookingStatus> BUSY_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int STRIPES = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, CachedBusy> cache;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    public ItemAvailabilityService(BookingRepository bookingRepository,
+                                   @Value("${shareit.item.availability.max-cached-items:10000}") int maxCachedItems,
+                                   MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxCachedItems)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "item-availability");
+    }
+
+    public List<AvailabilityIntervalDto> findFreeIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return merge(getBusy(itemId, from, to), from, to);
+    }
+
+    public void evict(Long itemId) {
+        stamps.incrementAndGet(stripe(itemId));
+        cache.invalidate(itemId);
+    }
+
+    private List<BookingInterval> getBusy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        CachedBusy cached = cache.getIfPresent(itemId);
+        if (cached != null && cached.covers(from, to)) {
+            return cached.busy();
+        }
+        long stamp = stamps.get(stripe(itemId));
+        LocalDateTime loadFrom = from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime loadTo = to.truncatedTo(ChronoUnit.DAYS);
+        if (loadTo.isBefore(to)) {
+            loadTo = loadTo.plusDays(1);
+        }
+        List<BookingInterval> busy = bookingRepository.findBusyIntervals(itemId, BUSY_STATUSES, loadFrom, loadTo);
+        CachedBusy loaded = new CachedBusy(loadFrom, loadTo, busy);
+        cache.asMap().compute(itemId, (id, current) -> stamps.get(stripe(itemId)) == stamp ? loaded : current);
+        return busy;
+    }
+
+    static List<AvailabilityIntervalDto> merge(List<BookingInterval> busy, LocalDateTime from, LocalDateTime to) {
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookingInterval interval : busy) {
+            if (!cursor.isBefore(to)) {
+                break;
+            }
+            if (interval.getEnd().isAfter(cursor) && interval.getStart().isBefore(to)) {
+                if (interval.getStart().isAfter(cursor)) {
+                    free.add(new AvailabilityIntervalDto(cursor, interval.getStart()));
+                }
+                cursor = interval.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new AvailabilityIntervalDto(cursor, to));
+        }
+        return free;
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STRIPES);
+    }
+
+    private record CachedBusy(LocalDateTime from, LocalDateTime to, List<BookingInterval> busy) {
+        boolean covers(LocalDateTime requestFrom, LocalDateTime requestTo) {
+            return !requestFrom.isBefore(from) && !requestTo.isAfter(to);
+        }
+    }
+}
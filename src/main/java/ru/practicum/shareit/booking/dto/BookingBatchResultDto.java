@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+@Data
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    private int index;
+    private int status;
+    private BookingDto booking;
+    private String error;
+
+    public static BookingBatchResultDto created(int index, BookingDto booking) {
+        return new BookingBatchResultDto(index, HttpStatus.CREATED.value(), booking, null);
+    }
+
+    public static BookingBatchResultDto failed(int index, HttpStatus status, String error) {
+        return new BookingBatchResultDto(index, status.value(), null, error);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.common.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Позиция в списке бронирований, упорядоченном по {@code (start DESC, id DESC)}.
+ * Клиенту передается как {@link KeysetCursor}.
+ */
+public record BookingCursor(LocalDateTime start, Long id) {
+    public static BookingCursor first() {
+        return of(KeysetCursor.first());
+    }
+
+    public static BookingCursor after(Booking booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor decode(String value) {
+        return of(KeysetCursor.decode(value));
+    }
+
+    public String encode() {
+        return new KeysetCursor(start, id).encode();
+    }
+
+    private static BookingCursor of(KeysetCursor cursor) {
+        return new BookingCursor(cursor.position(), cursor.id());
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingDecisionsResultDto {
+    private List<Long> approved;
+    private List<Long> rejected;
+    /**
+     * Бронирования, которые не найдены, не принадлежат владельцу или уже не в статусе WAITING —
+     * в том числе обработанные параллельным запросом.
+     */
+    private List<Long> skipped;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Версии бронирования, его вещи и арендатора вместе с участниками для проверки доступа.
+ */
+public interface BookingVersionView {
+    Long getBookingVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+}
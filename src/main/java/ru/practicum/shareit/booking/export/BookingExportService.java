@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.export;
+
+import io.micrometer.core.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всей истории бронирований владельца в NDJSON: строки читаются курсором с размером выборки
+ * {@code hibernate.fetchSize} и пишутся в поток ответа по одной, а контекст персистентности
+ * очищается каждые {@code clearEvery} строк, поэтому расход памяти не зависит от объема истории.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class BookingExportService {
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+    private final int clearEvery;
+
+    public BookingExportService(BookingRepository bookingRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                @Value("${shareit.booking.export.clear-every:500}") int clearEvery) {
+        this.bookingRepository = bookingRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.clearEvery = clearEvery;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportByOwner(Long userId, OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwner(userId);
+             JsonGenerator generator = writer.createGenerator(out)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, BookingMapper.toBookingDto(iterator.next()));
+                generator.writeRaw('\n');
+                if (++written % clearEvery == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return written;
+    }
+}
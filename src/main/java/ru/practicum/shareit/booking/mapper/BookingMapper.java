@@ -2,10 +2,12 @@ package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 public class BookingMapper {
@@ -20,6 +22,17 @@ public class BookingMapper {
         );
     }
 
+    public static BookingDto toBookingDto(ItemBookingView view, Item item) {
+        return new BookingDto(
+                view.getId(),
+                view.getStart(),
+                view.getEnd(),
+                ItemMapper.toItemDto(item),
+                new UserDto(view.getBookerId(), view.getBookerName(), view.getBookerEmail()),
+                BookingStatus.valueOf(view.getStatus())
+        );
+    }
+
     public static Booking toBooking(BookingDto bookingDto) {
         Booking booking = new Booking();
         booking.setStart(bookingDto.getStart());
@@ -0,0 +1,235 @@
+package ru.practicum.shareit.booking.timeline;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.event.UserUpdatedEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кэш подтвержденных бронирований по вещам для поиска последнего и следующего бронирования без обращения
+ * к базе. Объем ограничен суммарным числом бронирований (вес таймлайна — число его
+ * бронирований, пустой весит как одно); вытеснение и статистику ({@code cache.*{cache=booking-timelines}})
+ * ведет Caffeine. Периодическая сверка с базой удаляет разошедшиеся записи.
+ * <p>
+ * Таймлайны неизменяемы и заменяются целиком через {@code asMap().compute}, поэтому чтения не
+ * блокируются. Счетчики изменений по полосам id не дают загрузке, пересекшейся с записью, положить в кэш
+ * устаревший таймлайн. Имя и email арендатора хранятся в таймлайне в том виде, в каком их загрузил
+ * {@code findAllWithBookerByItemIdAndStatus}; изменение и удаление пользователя ({@link UserUpdatedEvent},
+ * {@link UserDeletedEvent}) переписывают его бронирования во всех таймлайнах, а отдельный счетчик не дает
+ * закэшировать загрузку, пересекшуюся с таким изменением.
+ */
+@Component
+public class BookingTimelineIndex {
+    private static final int STRIPES = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final long maxBookings;
+    private final int verifySampleSize;
+    private final Cache<Long, ItemTimeline> timelines;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final AtomicLong userChanges = new AtomicLong();
+
+    public BookingTimelineIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.timeline.enabled:false}") boolean enabled,
+                                @Value("${shareit.booking.timeline.max-bookings:1000000}") long maxBookings,
+                                @Value("${shareit.booking.timeline.verify-sample-size:100}") int verifySampleSize,
+                                MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.maxBookings = maxBookings;
+        this.verifySampleSize = verifySampleSize;
+        this.timelines = Caffeine.newBuilder()
+                .maximumWeight(maxBookings)
+                .<Long, ItemTimeline>weigher((itemId, timeline) -> Math.max(1, timeline.size()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "booking-timelines");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<ItemBookingView> findLastAndNext(Long itemId, LocalDateTime now) {
+        ItemTimeline timeline = getOrLoad(itemId);
+        List<ItemBookingView> result = new ArrayList<>(2);
+        timeline.last(now).ifPresent(booking -> result.add(view(itemId, ItemBookingView.LAST, booking)));
+        timeline.next(now).ifPresent(booking -> result.add(view(itemId, ItemBookingView.NEXT, booking)));
+        return result;
+    }
+
+    public void onSaved(Booking booking) {
+        if (!enabled || booking == null || booking.getId() == null || booking.getItem() == null) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        stamps.incrementAndGet(stripe(itemId));
+        TimelineBooking saved = TimelineBooking.of(booking);
+        boolean approved = booking.getStatus() == BookingStatus.APPROVED;
+        timelines.asMap().computeIfPresent(itemId,
+                (id, timeline) -> approved ? timeline.with(saved) : timeline.without(saved.id()));
+    }
+
+    /**
+     * Проход по всем таймлайнам: изменение пользователя редко, а обратный индекс арендатор → вещи занимал бы
+     * память на каждое бронирование.
+     */
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        userChanges.incrementAndGet();
+        timelines.asMap().replaceAll((itemId, timeline) ->
+                timeline.withBooker(event.id(), event.name(), event.email()));
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        userChanges.incrementAndGet();
+        timelines.asMap().replaceAll((itemId, timeline) -> timeline.withoutBooker(event.id()));
+    }
+
+    public long cachedItems() {
+        timelines.cleanUp();
+        return timelines.estimatedSize();
+    }
+
+    /**
+     * Суммарный вес кэша: число бронирований, пустой таймлайн считается за одно.
+     */
+    public long cachedBookings() {
+        timelines.cleanUp();
+        return timelines.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    public boolean verify(Long itemId) {
+        long stamp = stamps.get(stripe(itemId));
+        long userStamp = userChanges.get();
+        ItemTimeline cached = timelines.asMap().get(itemId);
+        if (cached == null) {
+            return true;
+        }
+        Set<TimelineBooking> actual = new HashSet<>(load(itemId).bookings());
+        if (actual.equals(new HashSet<>(cached.bookings()))) {
+            return true;
+        }
+        // запись после снятия отметки могла уже обновить таймлайн; тогда расхождение ожидаемо
+        boolean[] stale = new boolean[1];
+        timelines.asMap().computeIfPresent(itemId, (id, timeline) -> {
+            if (stamps.get(stripe(itemId)) != stamp || userChanges.get() != userStamp) {
+                return timeline;
+            }
+            stale[0] = true;
+            return null;
+        });
+        return !stale[0];
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.timeline.verify-interval-ms:300000}")
+    public void verifySample() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> sample = new ArrayList<>();
+        Iterator<Long> iterator = timelines.asMap().keySet().iterator();
+        while (iterator.hasNext() && sample.size() < verifySampleSize) {
+            sample.add(iterator.next());
+        }
+        sample.forEach(this::verify);
+    }
+
+    private ItemTimeline getOrLoad(Long itemId) {
+        ItemTimeline timeline = timelines.getIfPresent(itemId);
+        if (timeline != null) {
+            return timeline;
+        }
+        long stamp = stamps.get(stripe(itemId));
+        long userStamp = userChanges.get();
+        ItemTimeline loaded = load(itemId);
+        if (loaded.size() > maxBookings) {
+            return loaded;
+        }
+        // отметки сверяются под блокировкой ключа: onSaved и onUserUpdated сначала увеличивают их, затем меняют записи
+        ItemTimeline cached = timelines.asMap().compute(itemId, (id, current) -> current != null
+                || stamps.get(stripe(itemId)) != stamp || userChanges.get() != userStamp ? current : loaded);
+        return cached == null ? loaded : cached;
+    }
+
+    private ItemTimeline load(Long itemId) {
+        return ItemTimeline.of(bookingRepository.findAllWithBookerByItemIdAndStatus(itemId, BookingStatus.APPROVED));
+    }
+
+    private ItemBookingView view(Long itemId, String kind, TimelineBooking booking) {
+        return new TimelineBookingView(itemId, kind, booking);
+    }
+
+    private static int stripe(Long itemId) {
+        return (int) (Math.floorMod(itemId, (long) STRIPES));
+    }
+
+    private record TimelineBookingView(Long itemId, String kind, TimelineBooking booking)
+            implements ItemBookingView {
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public String getKind() {
+            return kind;
+        }
+
+        @Override
+        public Long getId() {
+            return booking.id();
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return booking.start();
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return booking.end();
+        }
+
+        @Override
+        public String getStatus() {
+            return BookingStatus.APPROVED.name();
+        }
+
+        @Override
+        public Long getBookerId() {
+            return booking.bookerId();
+        }
+
+        @Override
+        public String getBookerName() {
+            return booking.bookerName();
+        }
+
+        @Override
+        public String getBookerEmail() {
+            return booking.bookerEmail();
+        }
+    }
+}
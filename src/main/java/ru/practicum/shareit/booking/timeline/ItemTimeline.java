@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.timeline;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Неизменяемый снимок подтвержденных бронирований одной вещи.
+ * Хранит два упорядочения (по началу и по окончанию), чтобы последнее и следующее бронирования
+ * находились бинарным поиском.
+ */
+final class ItemTimeline {
+    private final TimelineBooking[] byStart;
+    private final TimelineBooking[] byEnd;
+
+    private ItemTimeline(List<TimelineBooking> bookings) {
+        byStart = bookings.stream()
+                .sorted(Comparator.comparing(TimelineBooking::start).thenComparing(TimelineBooking::id))
+                .toArray(TimelineBooking[]::new);
+        byEnd = bookings.stream()
+                .sorted(Comparator.comparing(TimelineBooking::end).thenComparing(TimelineBooking::id))
+                .toArray(TimelineBooking[]::new);
+    }
+
+    static ItemTimeline of(List<Booking> bookings) {
+        return new ItemTimeline(bookings.stream().map(TimelineBooking::of).toList());
+    }
+
+    int size() {
+        return byStart.length;
+    }
+
+    List<TimelineBooking> bookings() {
+        return List.of(byStart);
+    }
+
+    ItemTimeline with(TimelineBooking booking) {
+        List<TimelineBooking> bookings = new ArrayList<>(byStart.length + 1);
+        for (TimelineBooking existing : byStart) {
+            if (!existing.id().equals(booking.id())) {
+                bookings.add(existing);
+            }
+        }
+        bookings.add(booking);
+        return new ItemTimeline(bookings);
+    }
+
+    ItemTimeline without(Long bookingId) {
+        List<TimelineBooking> bookings = new ArrayList<>(byStart.length);
+        for (TimelineBooking existing : byStart) {
+            if (!existing.id().equals(bookingId)) {
+                bookings.add(existing);
+            }
+        }
+        return bookings.size() == byStart.length ? this : new ItemTimeline(bookings);
+    }
+
+    /**
+     * Копия с новыми именем и email арендатора; если его бронирований нет — этот же снимок.
+     */
+    ItemTimeline withBooker(Long bookerId, String name, String email) {
+        boolean found = false;
+        List<TimelineBooking> bookings = new ArrayList<>(byStart.length);
+        for (TimelineBooking existing : byStart) {
+            if (existing.bookerId().equals(bookerId)) {
+                found = true;
+                bookings.add(existing.withBooker(name, email));
+            } else {
+                bookings.add(existing);
+            }
+        }
+        return found ? new ItemTimeline(bookings) : this;
+    }
+
+    ItemTimeline withoutBooker(Long bookerId) {
+        List<TimelineBooking> bookings = new ArrayList<>(byStart.length);
+        for (TimelineBooking existing : byStart) {
+            if (!existing.bookerId().equals(bookerId)) {
+                bookings.add(existing);
+            }
+        }
+        return bookings.size() == byStart.length ? this : new ItemTimeline(bookings);
+    }
+
+    Optional<TimelineBooking> last(LocalDateTime now) {
+        int index = firstIndexEndingNotBefore(byEnd, now) - 1;
+        return index >= 0 ? Optional.of(byEnd[index]) : Optional.empty();
+    }
+
+    Optional<TimelineBooking> next(LocalDateTime now) {
+        int index = firstIndexAfter(byStart, now);
+        return index < byStart.length ? Optional.of(byStart[index]) : Optional.empty();
+    }
+
+    private static int firstIndexEndingNotBefore(TimelineBooking[] sortedByEnd, LocalDateTime now) {
+        int low = 0;
+        int high = sortedByEnd.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedByEnd[mid].end().isBefore(now)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstIndexAfter(TimelineBooking[] sortedByStart, LocalDateTime now) {
+        int low = 0;
+        int high = sortedByStart.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedByStart[mid].start().isAfter(now)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.timeline;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+record TimelineBooking(Long id, LocalDateTime start, LocalDateTime end, Long bookerId, String bookerName,
+                       String bookerEmail) {
+    static TimelineBooking of(Booking booking) {
+        return new TimelineBooking(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getBooker().getId(),
+                booking.getBooker().getName(),
+                booking.getBooker().getEmail()
+        );
+    }
+
+    TimelineBooking withBooker(String name, String email) {
+        return new TimelineBooking(id, start, end, bookerId, name, email);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.shareit.user.UserService;
+
+/**
+ * Проверяет X-Sharer-User-Id один раз на запрос и кладет {@link SharerPrincipal} в атрибуты запроса.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String ATTRIBUTE = SharerPrincipal.class.getName();
+
+    private final UserService userService;
+
+    public CurrentUserArgumentResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && SharerPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public SharerPrincipal resolveArgument(MethodParameter parameter,
+                                           ModelAndViewContainer mavContainer,
+                                           NativeWebRequest webRequest,
+                                           WebDataBinderFactory binderFactory) throws Exception {
+        Object resolved = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved instanceof SharerPrincipal principal) {
+            return principal;
+        }
+        String header = webRequest.getHeader(USER_ID_HEADER);
+        if (header == null) {
+            throw new MissingRequestHeaderException(USER_ID_HEADER, parameter);
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletRequestBindingException("Некорректный заголовок " + USER_ID_HEADER + ": " + header);
+        }
+        SharerPrincipal principal = SharerPrincipal.of(userService.findById(userId));
+        webRequest.setAttribute(ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Сильные ETag из версий: значения хэшируются SHA-256, в заголовок идут первые 128 бит. Одинаковые версии
+ * дают одинаковое тело ответа, поэтому по совпадению ETag можно отвечать {@code 304}, не собирая DTO.
+ */
+public final class ETags {
+    private static final int LENGTH = 16;
+
+    private ETags() {
+    }
+
+    public static String of(List<?> parts) {
+        MessageDigest digest = sha256();
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return '"' + HexFormat.of().formatHex(digest.digest(), 0, LENGTH) + '"';
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Пользователь из заголовка X-Sharer-User-Id, проверенный один раз на запрос. Сервисы получают его вместо
+ * id и не загружают пользователя повторно.
+ */
+public record SharerPrincipal(Long id, String name, String email) {
+    public static SharerPrincipal of(UserDto user) {
+        return new SharerPrincipal(user.getId(), user.getName(), user.getEmail());
+    }
+
+    public User toUser() {
+        return new User(id, name, email);
+    }
+
+    public UserDto toUserDto() {
+        return new UserDto(id, name, email);
+    }
+}
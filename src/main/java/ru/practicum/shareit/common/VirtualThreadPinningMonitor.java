@@ -0,0 +1,108 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Следит за событиями JFR {@code jdk.VirtualThreadPinned}: виртуальный поток заблокировался, оставаясь
+ * закрепленным за потоком-носителем (обычно {@code synchronized} в драйвере JDBC или Hibernate).
+ * Каждое событие увеличивает счетчик {@code shareit.virtual.pinned}; стек пишется в лог один раз
+ * для каждого места закрепления, чтобы горячий путь не засыпал лог.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+    private static final Pattern JDK_PACKAGES = Pattern.compile("(java|javax|jdk|sun)\\.");
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Map<String, AtomicLong> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean enabled,
+                                       @Value("${shareit.virtual.pinning.threshold-ms:20}") long thresholdMs,
+                                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = meterRegistry.counter("shareit.virtual.pinned");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Отслеживание закрепления виртуальных потоков включено, порог {} мс", threshold.toMillis());
+    }
+
+    public Map<String, Long> sites() {
+        return sites.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String site = stackTrace == null ? "unknown" : site(stackTrace);
+        if (sites.computeIfAbsent(site, key -> new AtomicLong()).getAndIncrement() == 0) {
+            log.warn("Виртуальный поток закреплен на {} мс в {}:\n{}", event.getDuration().toMillis(), site,
+                    stackTrace == null ? "" : stackTrace.getFrames().stream()
+                            .limit(STACK_DEPTH)
+                            .map(frame -> "\tat " + frame(frame))
+                            .collect(Collectors.joining("\n")));
+        }
+    }
+
+    /**
+     * Первый кадр вне JDK: сами события закрепления возникают в {@code java.util.concurrent} и {@code Continuation}.
+     */
+    private static String site(RecordedStackTrace stackTrace) {
+        return stackTrace.getFrames().stream()
+                .filter(frame -> !JDK_PACKAGES.matcher(frame.getMethod().getType().getName()).lookingAt())
+                .findFirst()
+                .or(() -> stackTrace.getFrames().stream().findFirst())
+                .map(VirtualThreadPinningMonitor::frame)
+                .orElse("unknown");
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.common.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш второго уровня Hibernate для {@code Item} и {@code User} на локальном JCache (Caffeine). Связь
+ * {@code Item.owner} хранится в записи вещи как id владельца и разрешается через регион пользователей, поэтому
+ * {@code item.getOwner()} в бронированиях не ходит в базу; {@code UserService.findById} читает пользователя
+ * через {@code findById} и тоже обслуживается этим регионом. Кэш запросов используется для
+ * {@code ItemRepository.findAllByOwnerId}; его результаты сбрасываются при любой записи в {@code items} через
+ * Hibernate. Записи сущностей сбрасываются самим Hibernate при {@code save}/{@code delete} (стратегия READ_WRITE),
+ * поэтому изменения в обход JPA (SQL, другие экземпляры приложения) видны лишь по истечении {@code ttl-ms}.
+ * <p>
+ * Регионы ведут статистику JCache сами и публикуются как {@code cache.*{cache=<регион>}} независимо от статистики
+ * Hibernate ({@code shareit.hibernate.statistics}), которая выключена по умолчанию.
+ * <p>
+ * У каждого контекста свой {@link CacheManager} с ограниченными по размеру регионами: общий менеджер провайдера
+ * делили бы контексты с разными базами, а Hibernate закрывает менеджер при остановке. Без этой конфигурации
+ * (например, в срезах {@code @DataJpaTest}) кэш выключен свойством {@code hibernate.cache.use_second_level_cache}.
+ */
+@Configuration
+@ConditionalOnProperty(value = "shareit.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class HibernateCacheConfig {
+    public static final String ITEM_REGION = Item.CACHE_REGION;
+    public static final String USER_REGION = User.CACHE_REGION;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${shareit.cache.items.max-size:100000}") long itemsMaxSize,
+                                              @Value("${shareit.cache.users.max-size:100000}") long usersMaxSize,
+                                              @Value("${shareit.cache.queries.max-size:10000}") long queriesMaxSize,
+                                              @Value("${shareit.cache.ttl-ms:600000}") long ttlMs,
+                                              MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(ITEM_REGION, region(itemsMaxSize, ttlMs));
+        cacheManager.createCache(USER_REGION, region(usersMaxSize, ttlMs));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queriesMaxSize, ttlMs));
+        // метки времени таблиц не вытесняются: без них кэш запросов мог бы вернуть устаревший результат
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        for (String region : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(meterRegistry, cacheManager.getCache(region));
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttlMs) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
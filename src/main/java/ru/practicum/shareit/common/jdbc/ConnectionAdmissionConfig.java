@@ -0,0 +1,43 @@
+package ru.practicum.shareit.common.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает пулы Hikari в {@link ConnectionAdmissionDataSource}, если включено
+ * {@code shareit.jdbc.admission.enabled} (профиль {@code virtual}). Лимит соединений берется из размера пула.
+ * Каждый пул (в том числе реплики при маршрутизации чтения) получает свой семафор и метрики с тегом {@code pool}.
+ */
+@Configuration
+public class ConnectionAdmissionConfig {
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource hikari
+                        ? admit(environment, meterRegistry.getObject(), beanName, hikari)
+                        : bean;
+            }
+        };
+    }
+
+    static DataSource admit(Environment environment, MeterRegistry meterRegistry, String pool,
+                            HikariDataSource dataSource) {
+        if (!environment.getProperty("shareit.jdbc.admission.enabled", Boolean.class, false)) {
+            return dataSource;
+        }
+        int maxWaiting = environment.getProperty("shareit.jdbc.admission.max-waiting", Integer.class, 1000);
+        long acquireTimeoutMs = environment.getProperty("shareit.jdbc.admission.acquire-timeout-ms", Long.class, 5000L);
+        return new ConnectionAdmissionDataSource(dataSource, pool, dataSource.getMaximumPoolSize(), maxWaiting,
+                acquireTimeoutMs, meterRegistry);
+    }
+}
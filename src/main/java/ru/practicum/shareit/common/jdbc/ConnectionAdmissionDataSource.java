@@ -0,0 +1,127 @@
+package ru.practicum.shareit.common.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Допуск к пулу соединений. Число одновременно выданных соединений ограничено размером пула, ожидающие потоки
+ * паркуются на семафоре (для виртуальных потоков это дешево), а число ожидающих ограничено {@code maxWaiting}:
+ * сверх него запрос получает отказ сразу, не становясь в очередь пула. Разрешение возвращается при закрытии
+ * соединения.
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutMs;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public ConnectionAdmissionDataSource(DataSource target, String pool, int maxConnections, int maxWaiting,
+                                         long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.rejectedQueueFull = meterRegistry.counter("shareit.jdbc.admission.rejected",
+                "pool", pool, "reason", "queue_full");
+        this.rejectedTimeout = meterRegistry.counter("shareit.jdbc.admission.rejected",
+                "pool", pool, "reason", "timeout");
+        Gauge.builder("shareit.jdbc.admission.waiting", waiting, AtomicInteger::get)
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("shareit.jdbc.admission.in-use", inUse, AtomicInteger::get)
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return admitted(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return admitted(() -> super.getConnection(username, password));
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public int inUse() {
+        return inUse.get();
+    }
+
+    private void acquire() throws SQLException {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new SQLTransientConnectionException(
+                    String.format("Очередь за соединением переполнена: ожидают %d", maxWaiting));
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedTimeout.increment();
+                throw new SQLTransientConnectionException(
+                        String.format("Соединение не получено за %d мс", acquireTimeoutMs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения прервано", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private Connection admitted(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        inUse.incrementAndGet();
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            inUse.decrementAndGet();
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.common.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разделение чтения и записи ({@code shareit.datasource.routing.enabled}). Основной пул строится из
+ * {@code spring.datasource.*}, реплики перечисляются в {@code shareit.datasource.routing.replica-urls}
+ * и по умолчанию используют те же учетные данные и размер пула. Основным источником приложения становится
+ * {@link LazyConnectionDataSourceProxy} над {@link ReadWriteRoutingDataSource}. Open-in-view должен быть выключен.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.routing.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+    public ReadWriteRoutingConfig(Environment environment) {
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("shareit.datasource.routing.enabled требует spring.jpa.open-in-view=false: "
+                    + "соединение открытой на весь запрос сессии не переключается между репликой и основной базой");
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${shareit.datasource.routing.sticky-users:10000}") int maxUsers,
+            @Value("${shareit.datasource.routing.read-your-writes-ms:5000}") long stickyMs) {
+        return new ReadYourWritesTracker(maxUsers, stickyMs);
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                        DataSourceProperties properties,
+                                                        ReadYourWritesTracker tracker,
+                                                        @Value("${shareit.datasource.routing.replica-urls:}")
+                                                        List<String> replicaUrls,
+                                                        Environment environment,
+                                                        MeterRegistry meterRegistry) {
+        int poolSize = environment.getProperty("shareit.datasource.routing.replica-pool-size", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(environment.getProperty("shareit.datasource.routing.replica-username",
+                            properties.determineUsername()))
+                    .password(environment.getProperty("shareit.datasource.routing.replica-password",
+                            properties.determinePassword()))
+                    .build();
+            String pool = "replica-" + replicas.size();
+            replica.setPoolName(pool);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(pool, ConnectionAdmissionConfig.admit(environment, meterRegistry, pool, replica));
+        }
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicas, tracker);
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.setLenientFallback(false);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.common.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.common.CurrentUserArgumentResolver;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Направляет транзакции {@code readOnly = true} в реплики (по кругу), остальные — в основную базу.
+ * Чтения пользователя, который недавно писал, тоже идут в основную базу (см. {@link ReadYourWritesTracker});
+ * пользователь определяется по заголовку {@code X-Sharer-User-Id} текущего запроса.
+ * Требует {@code spring.jpa.open-in-view=false}: иначе сессия Hibernate держит одно соединение на весь запрос
+ * и все его транзакции уходят в ту базу, которую выбрала первая.
+ * <p>
+ * Признак {@code readOnly} выставляется уже после того, как менеджер транзакций попросил соединение, поэтому
+ * источник используется только за {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * физическое соединение берется при первом запросе к базе, когда признак уже известен.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final List<DataSource> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Реплики по ключам, под которыми они же переданы в {@link #setTargetDataSources}; основная база —
+     * под ключом {@link #PRIMARY}. Целевые источники задает {@link ReadWriteRoutingConfig}.
+     */
+    public ReadWriteRoutingDataSource(Map<String, DataSource> replicas, ReadYourWritesTracker tracker) {
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.replicas = List.copyOf(replicas.values());
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null) {
+                markWriteAfterCommit(userId);
+            }
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || userId != null && tracker.isSticky(userId)) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            DataSource target = replica instanceof DelegatingDataSource delegating
+                    ? delegating.getTargetDataSource()
+                    : replica;
+            if (target instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+
+    /**
+     * Отметка ставится только после фиксации пишущей транзакции: отставание реплики отсчитывается от фиксации,
+     * а откат или обращение к базе вне транзакции ничего не записали и не должны уводить чтения с реплик.
+     */
+    private void markWriteAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tracker.markWrite(userId);
+            }
+        });
+    }
+
+    private static Long currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        String header = servletAttributes.getRequest().getHeader(CurrentUserArgumentResolver.USER_ID_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.common.jdbc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Пользователи, недавно писавшие в основную базу. Пока запись не истекла, их читающие транзакции идут
+ * в основную базу, а не в реплику, и пользователь видит свои изменения несмотря на отставание репликации.
+ * Проверка выполняется на каждой читающей транзакции, поэтому отметки хранит Caffeine: чтение не берет
+ * общую блокировку и не меняет структуру. Размер ограничен: вытесненный пользователь в худшем случае прочитает
+ * с реплики чуть устаревшие данные.
+ */
+public class ReadYourWritesTracker {
+    private final Cache<Long, Boolean> sticky;
+
+    public ReadYourWritesTracker(int maxSize, long stickyMs) {
+        this(maxSize, stickyMs, System::nanoTime);
+    }
+
+    ReadYourWritesTracker(int maxSize, long stickyMs, LongSupplier clock) {
+        this.sticky = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(stickyMs))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    public void markWrite(Long userId) {
+        sticky.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isSticky(Long userId) {
+        return sticky.getIfPresent(userId) != null;
+    }
+
+    public long size() {
+        sticky.cleanUp();
+        return sticky.estimatedSize();
+    }
+}
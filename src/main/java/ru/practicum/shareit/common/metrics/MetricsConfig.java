@@ -0,0 +1,50 @@
+package ru.practicum.shareit.common.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Метрики задержек. Эндпоинты измеряет сам Spring ({@code http.server.requests}), методы сервисов — аспект
+ * {@link TimedAspect} по аннотации {@code @Timed} на классе ({@code shareit.service}), методы репозиториев —
+ * {@link RepositoryMetricsInterceptor}. Гистограммы процентилей включаются свойствами
+ * {@code management.metrics.distribution.percentiles-histogram.*} и отдаются через {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    /**
+     * Перехватчик ставится первым в цепочке прокси репозитория, чтобы время включало и открытие транзакции.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(0, new RepositoryMetricsInterceptor(
+                                    information.getRepositoryInterface(), meterRegistry.getObject()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
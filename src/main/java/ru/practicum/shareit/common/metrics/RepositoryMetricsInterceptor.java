@@ -0,0 +1,101 @@
+package ru.practicum.shareit.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * Метрики вызовов методов репозитория: время ({@code shareit.repository.invocations}), число возвращенных
+ * строк ({@code shareit.repository.rows}) и число SQL-запросов, выполненных внутри вызова
+ * ({@code shareit.repository.statements}; догрузка ленивых связей после возврата сюда не входит).
+ * Метры кэшируются по методу, так что на горячем пути нет поиска в реестре. Для методов, возвращающих
+ * {@code Stream}, время и запросы учитываются только до выдачи потока, а строки не считаются.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+    static final String INVOCATIONS = "shareit.repository.invocations";
+    static final String ROWS = "shareit.repository.rows";
+    static final String STATEMENTS = "shareit.repository.statements";
+
+    private final String repository;
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(Class<?> repositoryInterface, MeterRegistry meterRegistry) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        long statementsBefore = StatementCounter.current();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            Timer.builder(INVOCATIONS)
+                    .tags(tags(method).and("exception", e.getClass().getSimpleName()))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        Meters methodMeters = meters.computeIfAbsent(method, this::register);
+        methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        methodMeters.statements.record(StatementCounter.current() - statementsBefore);
+        long rows = rows(result);
+        if (rows >= 0) {
+            methodMeters.rows.record(rows);
+        }
+        return result;
+    }
+
+    private Meters register(Method method) {
+        Tags tags = tags(method);
+        return new Meters(
+                Timer.builder(INVOCATIONS).tags(tags.and("exception", "none")).register(meterRegistry),
+                DistributionSummary.builder(ROWS).tags(tags).register(meterRegistry),
+                DistributionSummary.builder(STATEMENTS).tags(tags).register(meterRegistry));
+    }
+
+    private Tags tags(Method method) {
+        return Tags.of("repository", repository, "method", method.getName());
+    }
+
+    /**
+     * Число строк результата; -1, если результат не набор сущностей (счетчик, признак, поток).
+     */
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof BaseStream) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private record Meters(Timer timer, DistributionSummary rows, DistributionSummary statements) {
+    }
+}
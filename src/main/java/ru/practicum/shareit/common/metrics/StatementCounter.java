@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы, которые Hibernate готовит в текущем потоке. Вызов репозитория берет разницу
+ * счетчика до и после себя и так узнает, сколько запросов выполнено внутри него. Ленивые связи, которые
+ * догружаются уже после возврата (например, {@code booking.getItem().getOwner()} в мапперах), в эту разницу
+ * не попадают.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
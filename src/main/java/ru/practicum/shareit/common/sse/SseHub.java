@@ -0,0 +1,219 @@
+package ru.practicum.shareit.common.sse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылка событий подписчикам SSE внутри процесса. У каждого подписчика своя очередь ограниченного размера;
+ * публикация только кладет событие в очереди и не ждет сети, а отправкой занимается общий пул потоков.
+ * Подписчик, чья очередь переполнена, считается медленным и отключается. События, опубликованные внутри
+ * транзакции, рассылаются только после ее фиксации. В режиме виртуальных потоков каждая отправка идет
+ * в своем виртуальном потоке, и медленная запись не занимает поток пула.
+ */
+@Component
+public class SseHub {
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final Executor executor;
+    private final Map<SseTopic, Map<Long, Set<Subscriber>>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final Counter evictions;
+
+    @Autowired
+    public SseHub(@Value("${shareit.sse.timeout-ms:1800000}") long timeoutMs,
+                  @Value("${shareit.sse.buffer-size:64}") int bufferSize,
+                  @Value("${shareit.sse.delivery-threads:4}") int deliveryThreads,
+                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                  MeterRegistry meterRegistry) {
+        this(timeoutMs, bufferSize, virtualThreads
+                ? new VirtualThreadTaskExecutor("sse-delivery-")
+                : Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+                    Thread thread = new Thread(runnable, "sse-delivery");
+                    thread.setDaemon(true);
+                    return thread;
+                }), meterRegistry);
+    }
+
+    SseHub(long timeoutMs, int bufferSize, Executor executor, MeterRegistry meterRegistry) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+        for (SseTopic topic : SseTopic.values()) {
+            subscribers.put(topic, new ConcurrentHashMap<>());
+        }
+        this.evictions = meterRegistry.counter("shareit.sse.evictions");
+        Gauge.builder("shareit.sse.subscribers", count, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(SseTopic topic, Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(topic, userId, emitter);
+        return emitter;
+    }
+
+    Subscriber register(SseTopic topic, Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(topic, userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.get(topic).computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        count.incrementAndGet();
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+        return subscriber;
+    }
+
+    /**
+     * Событие подписчикам темы {@code topic} с идентификатором пользователя {@code userId}.
+     */
+    public void sendTo(SseTopic topic, Long userId, String name, Long id, Object data) {
+        afterCommit(() -> {
+            Set<Subscriber> targets = subscribers.get(topic).get(userId);
+            if (targets != null) {
+                targets.forEach(subscriber -> subscriber.offer(event(name, id, data)));
+            }
+        });
+    }
+
+    /**
+     * Событие всем подписчикам темы, кроме подписок пользователя {@code exceptUserId}.
+     */
+    public void broadcast(SseTopic topic, Long exceptUserId, String name, Long id, Object data) {
+        afterCommit(() -> subscribers.get(topic).forEach((userId, targets) -> {
+            if (!userId.equals(exceptUserId)) {
+                targets.forEach(subscriber -> subscriber.offer(event(name, id, data)));
+            }
+        }));
+    }
+
+    /**
+     * Комментарий-пульс: не дает прокси закрыть простаивающие соединения и выявляет отключившихся клиентов.
+     */
+    @Scheduled(fixedDelayString = "${shareit.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(topic -> topic.values().forEach(targets ->
+                targets.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("ping")))));
+    }
+
+    public int size() {
+        return count.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(topic -> topic.values().forEach(targets ->
+                targets.forEach(subscriber -> subscriber.emitter.complete())));
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, Long id, Object data) {
+        return SseEmitter.event().name(name).id(String.valueOf(id)).data(data);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.get(subscriber.topic).computeIfPresent(subscriber.userId, (key, targets) -> {
+            targets.remove(subscriber);
+            return targets.isEmpty() ? null : targets;
+        });
+        count.decrementAndGet();
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        evictions.increment();
+        unregister(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    final class Subscriber {
+        private final SseTopic topic;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseTopic topic, Long userId, SseEmitter emitter, Queue<SseEmitter.SseEventBuilder> buffer) {
+            this.topic = topic;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        int pending() {
+            return buffer.size();
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                evict(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        unregister(this);
+                        emitter.completeWithError(e);
+                    }
+                }
+                draining.set(false);
+            } while (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.common.sse;
+
+public enum SseTopic {
+    BOOKINGS,
+    REQUESTS
+}
@@ -1,15 +1,24 @@
 package ru.practicum.shareit.exception;
 
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import ru.practicum.shareit.booking.exceptions.BookingAccessDeniedException;
+import ru.practicum.shareit.booking.exceptions.BookingConcurrentUpdateException;
 import ru.practicum.shareit.booking.exceptions.BookingNotFoundException;
+import ru.practicum.shareit.booking.exceptions.BookingOverlapException;
 import ru.practicum.shareit.booking.exceptions.BookingStatusException;
 import ru.practicum.shareit.booking.exceptions.ItemUnavailableException;
+import ru.practicum.shareit.common.InvalidCursorException;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.exceptions.ItemAccessDeniedException;
+import ru.practicum.shareit.item.exceptions.InvalidDateRangeException;
+import ru.practicum.shareit.request.exceptions.ItemRequestNotFoundException;
 import ru.practicum.shareit.user.exception.EmailAlreadyUsedException;
 import ru.practicum.shareit.user.exception.EmailNotGivenException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
@@ -82,4 +91,65 @@ public class GlobalExceptionHandler {
         response.put("Ошибка: ", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConstraintViolationException(ConstraintViolationException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursorException(InvalidCursorException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(BookingOverlapException.class)
+    public ResponseEntity<Map<String, String>> handleBookingOverlapException(BookingOverlapException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidDateRangeException(InvalidDateRangeException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ItemRequestNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleItemRequestNotFoundException(ItemRequestNotFoundException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(BookingConcurrentUpdateException.class)
+    public ResponseEntity<Map<String, String>> handleBookingConcurrentUpdateException(
+            BookingConcurrentUpdateException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", "Данные изменены другим запросом, повторите запрос");
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Map<String, String>> handleCannotCreateTransactionException(
+            CannotCreateTransactionException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("Ошибка: ", "База данных перегружена или недоступна, повторите запрос позже");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
 }
@@ -1,18 +1,31 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.common.CurrentUserArgumentResolver;
+import ru.practicum.shareit.common.CurrentUser;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
+@Validated
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
@@ -23,37 +36,70 @@ public class ItemController {
     }
 
     @PostMapping
-    public ItemDto create(@Valid @RequestBody ItemCreateDto item, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ItemMapper.toItemDto(itemService.create(ItemMapper.toItem(item), userId));
+    public ItemDto create(@Valid @RequestBody ItemCreateDto item, @CurrentUser SharerPrincipal user) {
+        return itemService.create(ItemMapper.toItem(item), user);
     }
 
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(
             @PathVariable Long itemId,
-            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @CurrentUser SharerPrincipal user,
             @Valid @RequestBody CommentDto commentDto) {
-        return itemService.addComment(itemId, userId, commentDto);
+        return itemService.addComment(itemId, user, commentDto);
     }
 
+    /**
+     * Сначала сверяется ETag из версий: при совпадении с {@code If-None-Match} ответ {@code 304} без сборки DTO.
+     */
     @GetMapping("/{itemId}")
-    public ItemDto findById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.getEnrichedItemDto(itemId, userId);
+    public ResponseEntity<ItemDto> findById(@PathVariable Long itemId, @CurrentUser SharerPrincipal user,
+                                            WebRequest request) {
+        String eTag = itemService.getItemETag(itemId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(itemService.getEnrichedItemDto(itemId, user.id()));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilityIntervalDto> getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @GetMapping
-    public List<ItemDto> findAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.findAllEnrichedByUser(userId);
+    public ResponseEntity<List<ItemDto>> findAllByUser(@CurrentUser SharerPrincipal user, WebRequest request) {
+        String eTag = itemService.getItemsETag(user.id());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(CurrentUserArgumentResolver.USER_ID_HEADER)
+                .body(itemService.findAllEnrichedByUser(user));
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto update(@Valid @RequestBody ItemUpdateDto item, @PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ItemMapper.toItemDto(itemService.update(ItemMapper.toItem(item), itemId, userId));
+    public ItemDto update(@Valid @RequestBody ItemUpdateDto item, @PathVariable Long itemId, @CurrentUser SharerPrincipal user) {
+        return ItemMapper.toItemDto(itemService.update(ItemMapper.toItem(item), itemId, user));
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
-        return itemService.search(text).stream()
+    public List<ItemDto> search(@RequestParam String text,
+                                @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                @RequestParam(defaultValue = "10") @Positive int size) {
+        return itemService.search(text, from, size).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") @Positive @Max(100) int size) {
+        return itemService.suggest(prefix, size);
+    }
 }
@@ -1,18 +1,67 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemAnswerView;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * Последнее и следующее бронирования выбираются так же, как в {@code findLastAndNextApprovedByItemIds},
+     * но по одной строке индекса на вещь и без загрузки полей.
+     */
+    String VERSIONS = "SELECT i.id AS \"itemId\", i.version AS \"itemVersion\", " +
+            "lb.id AS \"lastBookingId\", lb.version AS \"lastBookingVersion\", lu.version AS \"lastBookerVersion\", " +
+            "nb.id AS \"nextBookingId\", nb.version AS \"nextBookingVersion\", nu.version AS \"nextBookerVersion\", " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id) AS \"comments\", " +
+            "(SELECT MAX(c.id) FROM comments c WHERE c.item_id = i.id) AS \"lastCommentId\", " +
+            "(SELECT SUM(c.version + u.version) FROM comments c JOIN users u ON u.id = c.author_id " +
+            "WHERE c.item_id = i.id) AS \"commentVersions\" " +
+            "FROM items i " +
+            "LEFT JOIN bookings lb ON lb.id = (SELECT b.id FROM bookings b WHERE b.item_id = i.id " +
+            "AND b.status = 'APPROVED' AND b.end_date < :now ORDER BY b.end_date DESC, b.id DESC LIMIT 1) " +
+            "LEFT JOIN users lu ON lu.id = lb.booker_id " +
+            "LEFT JOIN bookings nb ON nb.id = (SELECT b.id FROM bookings b WHERE b.item_id = i.id " +
+            "AND b.status = 'APPROVED' AND b.start_date > :now ORDER BY b.start_date, b.id LIMIT 1) " +
+            "LEFT JOIN users nu ON nu.id = nb.booker_id ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Item> findAllByOwnerId(Long userId);
 
     @Query("SELECT i FROM Item i WHERE i.available = true AND " +
            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
-           "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
-    List<Item> search(String text);
+           "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+           "ORDER BY i.id")
+    List<Item> search(@Param("text") String text, Pageable pageable);
+
+    @Query(value = "SELECT i.* FROM items i WHERE i.available = true AND " +
+            "(LOWER(i.name) LIKE CONCAT('%', LOWER(:text), '%') OR " +
+            "LOWER(i.description) LIKE CONCAT('%', LOWER(:text), '%')) " +
+            "ORDER BY word_similarity(LOWER(:text), LOWER(i.name)) DESC, " +
+            "word_similarity(LOWER(:text), LOWER(i.description)) DESC, i.id " +
+            "LIMIT :size OFFSET :from", nativeQuery = true)
+    List<Item> searchRanked(@Param("text") String text, @Param("from") int from, @Param("size") int size);
+
+    @Query("SELECT i.request.id AS requestId, i.id AS id, i.name AS name, i.owner.id AS ownerId " +
+           "FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<ItemAnswerView> findAnswersByRequestIds(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query(value = VERSIONS + "WHERE i.id = :itemId", nativeQuery = true)
+    Optional<ItemVersionView> findVersionsById(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    @Query(value = VERSIONS + "WHERE i.owner_id = :ownerId ORDER BY i.id", nativeQuery = true)
+    List<ItemVersionView> findVersionsByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
 }
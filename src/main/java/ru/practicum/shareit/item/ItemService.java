@@ -1,29 +1,43 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemService {
-    Item create(Item item, Long userId);
+    ItemDto create(Item item, SharerPrincipal principal);
 
-    Item update(Item item, Long itemId, Long userId);
+    Item update(Item item, Long itemId, SharerPrincipal principal);
 
     Item findById(Long id);
 
+    List<Item> findAllByIds(Collection<Long> ids);
+
     List<Item> findAllByUser(Long userId);
 
     void delete(Item item);
 
-    List<Item> search(String text);
+    List<Item> search(String text, int from, int size);
+
+    List<String> suggest(String prefix, int size);
 
-    CommentDto addComment(Long itemId, Long userId, CommentDto commentDto);
+    CommentDto addComment(Long itemId, SharerPrincipal principal, CommentDto commentDto);
 
     List<CommentDto> getItemComments(Long itemId);
 
     ItemDto getEnrichedItemDto(Long itemId, Long userId);
 
-    List<ItemDto> findAllEnrichedByUser(Long userId);
+    String getItemETag(Long itemId);
+
+    String getItemsETag(Long ownerId);
+
+    List<ItemDto> findAllEnrichedByUser(SharerPrincipal principal);
+
+    List<AvailabilityIntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 }
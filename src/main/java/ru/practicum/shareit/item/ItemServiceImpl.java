@@ -1,46 +1,71 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingValidationService;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityService;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
+import ru.practicum.shareit.common.ETags;
+import ru.practicum.shareit.common.OffsetPageRequest;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.exceptions.ItemAccessDeniedException;
 import ru.practicum.shareit.item.exceptions.CommentNotAllowedException;
+import ru.practicum.shareit.item.exceptions.InvalidDateRangeException;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.UserService;
-import ru.practicum.shareit.user.mapper.UserMapper;
-import ru.practicum.shareit.user.model.User;
-
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
+import ru.practicum.shareit.request.exceptions.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.match.ItemRequestMatch;
+import ru.practicum.shareit.request.match.ItemRequestMatchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.Comparator;
-import java.util.HashMap;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final Duration DEFAULT_AVAILABILITY_RANGE = Duration.ofDays(30);
+    private static final Duration MAX_AVAILABILITY_RANGE = Duration.ofDays(366);
+    private static final int MATCHING_REQUESTS_LIMIT = 10;
+
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
-    private final UserService userService;
     private final BookingValidationService bookingValidationService;
     private final CommentMapper commentMapper;
     private final BookingRepository bookingRepository;
-
-    private User getUserOrThrow(Long userId) {
-        return UserMapper.toUser(userService.findById(userId));
-    }
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestMatchIndex itemRequestMatchIndex;
 
     private Item getItemOrThrow(Long itemId) {
         return itemRepository.findById(itemId)
@@ -55,18 +80,50 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    private List<ItemRequestMatchDto> findMatchingRequests(Item item, Long ownerId) {
+        if (!Item.isAvailable(item)) {
+            return List.of();
+        }
+        List<ItemRequestMatch> matches = itemRequestMatchIndex.match(
+                item.getName() + " " + item.getDescription(), ownerId, MATCHING_REQUESTS_LIMIT);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(matches.stream()
+                        .map(ItemRequestMatch::requestId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        return matches.stream()
+                .filter(match -> requests.containsKey(match.requestId()))
+                .map(match -> ItemRequestMapper.toItemRequestMatchDto(requests.get(match.requestId()), match.score()))
+                .collect(Collectors.toList());
+    }
+
     @Override
-    public Item create(Item item, Long userId) {
-        User user = getUserOrThrow(userId);
-        item.setOwner(user);
-        return itemRepository.save(item);
+    public ItemDto create(Item item, SharerPrincipal principal) {
+        item.setOwner(principal.toUser());
+        if (item.getRequest() != null) {
+            Long requestId = item.getRequest().getId();
+            if (!itemRequestRepository.existsById(requestId)) {
+                throw new ItemRequestNotFoundException(String.format("Запрос с id %d не найден", requestId));
+            }
+            item.setRequest(itemRequestRepository.getReferenceById(requestId));
+        }
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        itemSuggestIndex.put(savedItem);
+        if (savedItem.getRequest() != null) {
+            itemRequestMatchIndex.remove(savedItem.getRequest().getId());
+        }
+        ItemDto itemDto = ItemMapper.toItemDto(savedItem);
+        itemDto.setMatchingRequests(findMatchingRequests(savedItem, principal.id()));
+        return itemDto;
     }
 
     @Override
-    public Item update(Item item, Long itemId, Long userId) {
-        User user = getUserOrThrow(userId);
+    public Item update(Item item, Long itemId, SharerPrincipal principal) {
         Item existingItem = getItemOrThrow(itemId);
-        checkItemOwnership(existingItem, userId);
+        checkItemOwnership(existingItem, principal.id());
         if (item.getName() != null) {
             existingItem.setName(item.getName());
         }
@@ -76,7 +133,10 @@ public class ItemServiceImpl implements ItemService {
         if (item.getAvailable() != null) {
             existingItem.setAvailable(item.getAvailable());
         }
-        return itemRepository.save(existingItem);
+        Item savedItem = itemRepository.save(existingItem);
+        itemSearchIndex.index(savedItem);
+        itemSuggestIndex.put(savedItem);
+        return savedItem;
     }
 
     @Override
@@ -84,29 +144,57 @@ public class ItemServiceImpl implements ItemService {
         return getItemOrThrow(id);
     }
 
+    @Override
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAllById(ids);
+    }
+
     @Override
     public List<Item> findAllByUser(Long userId) {
-        getUserOrThrow(userId);
         return itemRepository.findAllByOwnerId(userId);
     }
 
     @Override
     public void delete(Item item) {
         itemRepository.delete(item);
+        itemSearchIndex.remove(item.getId());
+        itemSuggestIndex.remove(item.getId());
     }
 
     @Override
-    public List<Item> search(String text) {
+    @Transactional(readOnly = true)
+    public List<Item> search(String text, int from, int size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return itemRepository.search(text);
+        ItemSearchMode mode = itemSearchIndex.getMode();
+        if (mode == ItemSearchMode.FULLTEXT) {
+            return itemRepository.searchRanked(text, from, size);
+        }
+        if (mode == ItemSearchMode.INDEX) {
+            List<Long> pageIds = itemSearchIndex.search(text, from, size);
+            if (pageIds.isEmpty()) {
+                return List.of();
+            }
+            return itemRepository.findAllById(pageIds).stream()
+                    .sorted(Comparator.comparing(Item::getId))
+                    .collect(Collectors.toList());
+        }
+        return itemRepository.search(text, new OffsetPageRequest(from, size));
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        return itemSuggestIndex.suggest(prefix, size);
     }
 
     @Override
-    public CommentDto addComment(Long itemId, Long userId, CommentDto commentDto) {
+    public CommentDto addComment(Long itemId, SharerPrincipal principal, CommentDto commentDto) {
+        Long userId = principal.id();
         Item item = getItemOrThrow(itemId);
-        User user = getUserOrThrow(userId);
 
         if (!bookingValidationService.hasUserBookedItem(userId, itemId)) {
             throw new CommentNotAllowedException(
@@ -116,7 +204,7 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = commentMapper.toComment(commentDto);
         comment.setItem(item);
-        comment.setAuthor(user);
+        comment.setAuthor(principal.toUser());
         comment.setCreated(LocalDateTime.now());
 
         return commentMapper.toDto(commentRepository.save(comment));
@@ -130,26 +218,12 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
-    private Map<Long, List<Booking>> getBookingsForItems(List<Long> itemIds, Long userId) {
+    private Map<Long, List<ItemBookingView>> getLastAndNextBookings(List<Long> itemIds) {
         if (itemIds.isEmpty()) {
             return Map.of();
         }
-
-        List<Booking> bookings = bookingRepository.findAllByItemIdsAndStatusOrderByStartAsc(
-                itemIds, BookingStatus.APPROVED);
-
-        LocalDateTime now = LocalDateTime.now();
-        Map<Long, List<Booking>> bookingsByItem = bookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-
-        Map<Long, List<Booking>> result = new HashMap<>();
-        for (Long itemId : itemIds) {
-            List<Booking> itemBookings = bookingsByItem.getOrDefault(itemId, List.of());
-            result.put(itemId, itemBookings.stream()
-                    .filter(booking -> booking.getStart().isAfter(now))
-                    .collect(Collectors.toList()));
-        }
-        return result;
+        return bookingRepository.findLastAndNextApprovedByItemIds(itemIds, LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(ItemBookingView::getItemId));
     }
 
     private Map<Long, List<Comment>> getCommentsForItems(List<Long> itemIds) {
@@ -160,9 +234,25 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
     }
 
+    private ItemDto toEnrichedItemDto(Item item, List<ItemBookingView> bookings, List<Comment> comments) {
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        for (ItemBookingView booking : bookings) {
+            if (ItemBookingView.LAST.equals(booking.getKind())) {
+                itemDto.setLastBooking(BookingMapper.toBookingDto(booking, item));
+            } else if (ItemBookingView.NEXT.equals(booking.getKind())) {
+                itemDto.setNextBooking(BookingMapper.toBookingDto(booking, item));
+            }
+        }
+        itemDto.setComments(comments.stream()
+                .map(commentMapper::toDto)
+                .collect(Collectors.toList()));
+        return itemDto;
+    }
+
     @Override
-    public List<ItemDto> findAllEnrichedByUser(Long userId) {
-        List<Item> items = findAllByUser(userId);
+    @Transactional(readOnly = true)
+    public List<ItemDto> findAllEnrichedByUser(SharerPrincipal principal) {
+        List<Item> items = findAllByUser(principal.id());
         if (items.isEmpty()) {
             return List.of();
         }
@@ -171,66 +261,63 @@ public class ItemServiceImpl implements ItemService {
                 .map(Item::getId)
                 .collect(Collectors.toList());
 
-        Map<Long, List<Booking>> bookingsByItem = getBookingsForItems(itemIds, userId);
+        Map<Long, List<ItemBookingView>> bookingsByItem = getLastAndNextBookings(itemIds);
         Map<Long, List<Comment>> commentsByItem = getCommentsForItems(itemIds);
 
         return items.stream()
-                .map(item -> {
-                    ItemDto itemDto = ItemMapper.toItemDto(item);
-
-                    List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), List.of());
-                    LocalDateTime now = LocalDateTime.now();
-
-                    Optional<Booking> lastBooking = itemBookings.stream()
-                            .filter(booking -> booking.getEnd().isBefore(now))
-                            .max(Comparator.comparing(Booking::getEnd));
-
-                    Optional<Booking> nextBooking = itemBookings.stream()
-                            .filter(booking -> booking.getStart().isAfter(now))
-                            .min(Comparator.comparing(Booking::getStart));
-
-                    itemDto.setLastBooking(lastBooking.map(BookingMapper::toBookingDto).orElse(null));
-                    itemDto.setNextBooking(nextBooking.map(BookingMapper::toBookingDto).orElse(null));
-
-                    List<CommentDto> comments = commentsByItem.getOrDefault(item.getId(), List.of()).stream()
-                            .map(commentMapper::toDto)
-                            .collect(Collectors.toList());
-                    itemDto.setComments(comments);
-
-                    return itemDto;
-                })
+                .map(item -> toEnrichedItemDto(item,
+                        bookingsByItem.getOrDefault(item.getId(), List.of()),
+                        commentsByItem.getOrDefault(item.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemDto getEnrichedItemDto(Long itemId, Long userId) {
         Item item = getItemOrThrow(itemId);
         List<Long> itemIds = List.of(itemId);
 
-        Map<Long, List<Booking>> bookingsByItem = getBookingsForItems(itemIds, userId);
+        List<ItemBookingView> bookings = bookingTimelineIndex.isEnabled()
+                ? bookingTimelineIndex.findLastAndNext(itemId, LocalDateTime.now())
+                : getLastAndNextBookings(itemIds).getOrDefault(itemId, List.of());
         Map<Long, List<Comment>> commentsByItem = getCommentsForItems(itemIds);
 
-        ItemDto itemDto = ItemMapper.toItemDto(item);
-
-        List<Booking> itemBookings = bookingsByItem.getOrDefault(itemId, List.of());
-        LocalDateTime now = LocalDateTime.now();
-
-        Optional<Booking> lastBooking = itemBookings.stream()
-                .filter(booking -> booking.getEnd().isBefore(now))
-                .max(Comparator.comparing(Booking::getEnd));
-
-        Optional<Booking> nextBooking = itemBookings.stream()
-                .filter(booking -> booking.getStart().isAfter(now))
-                .min(Comparator.comparing(Booking::getStart));
+        return toEnrichedItemDto(item,
+                bookings,
+                commentsByItem.getOrDefault(itemId, List.of()));
+    }
 
-        itemDto.setLastBooking(lastBooking.map(BookingMapper::toBookingDto).orElse(null));
-        itemDto.setNextBooking(nextBooking.map(BookingMapper::toBookingDto).orElse(null));
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemETag(Long itemId) {
+        return itemRepository.findVersionsById(itemId, LocalDateTime.now())
+                .map(versions -> ETags.of(versions.fingerprint()))
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Предмет с id %d не найден", itemId)));
+    }
 
-        List<CommentDto> comments = commentsByItem.getOrDefault(itemId, List.of()).stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
-        itemDto.setComments(comments);
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemsETag(Long ownerId) {
+        List<Object> parts = new ArrayList<>();
+        parts.add(ownerId);
+        for (ItemVersionView versions : itemRepository.findVersionsByOwnerId(ownerId, LocalDateTime.now())) {
+            parts.addAll(versions.fingerprint());
+        }
+        return ETags.of(parts);
+    }
 
-        return itemDto;
+    @Override
+    public List<AvailabilityIntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        getItemOrThrow(itemId);
+        LocalDateTime rangeFrom = from != null ? from : LocalDateTime.now();
+        LocalDateTime rangeTo = to != null ? to : rangeFrom.plus(DEFAULT_AVAILABILITY_RANGE);
+        if (!rangeTo.isAfter(rangeFrom)) {
+            throw new InvalidDateRangeException("Конец периода должен быть позже начала");
+        }
+        if (Duration.between(rangeFrom, rangeTo).compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new InvalidDateRangeException(
+                    String.format("Период не может быть длиннее %d дней", MAX_AVAILABILITY_RANGE.toDays()));
+        }
+        return itemAvailabilityService.findFreeIntervals(itemId, rangeFrom, rangeTo);
     }
-}
\ No newline at end of file
+}
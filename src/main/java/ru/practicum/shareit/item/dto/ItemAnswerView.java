@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Вещь, отвечающая на запрос, без загрузки сущности.
+ */
+public interface ItemAnswerView {
+    Long getRequestId();
+
+    Long getId();
+
+    String getName();
+
+    Long getOwnerId();
+}
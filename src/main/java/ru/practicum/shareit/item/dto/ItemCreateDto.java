@@ -14,4 +14,5 @@ public class ItemCreateDto {
     private String description;
     @NotNull(message = "Статус доступности должен быть указан")
     private Boolean available;
+    private Long requestId;
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
 
 import java.util.List;
 
@@ -18,4 +19,6 @@ public class ItemDto {
     private List<CommentDto> comments;
     private BookingDto lastBooking;
     private BookingDto nextBooking;
+    private Long requestId;
+    private List<ItemRequestMatchDto> matchingRequests;
 }
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Версии всего, из чего складывается обогащенная вещь: сама вещь, выбранные на момент запроса последнее
+ * и следующее бронирования с версиями их арендаторов, комментарии с версиями авторов. Пустые id бронирований
+ * означают, что бронирования нет.
+ */
+public interface ItemVersionView {
+    Long getItemId();
+
+    Long getItemVersion();
+
+    Long getLastBookingId();
+
+    Long getLastBookingVersion();
+
+    Long getLastBookerVersion();
+
+    Long getNextBookingId();
+
+    Long getNextBookingVersion();
+
+    Long getNextBookerVersion();
+
+    Long getComments();
+
+    Long getLastCommentId();
+
+    Long getCommentVersions();
+
+    default List<Object> fingerprint() {
+        return Arrays.asList(getItemId(), getItemVersion(),
+                getLastBookingId(), getLastBookingVersion(), getLastBookerVersion(),
+                getNextBookingId(), getNextBookingVersion(), getNextBookerVersion(),
+                getComments(), getLastCommentId(), getCommentVersions());
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.exceptions;
+
+public class InvalidDateRangeException extends RuntimeException {
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 
 public class ItemMapper {
     public static Item toItem(ItemCreateDto itemCreateDto) {
@@ -13,7 +14,7 @@ public class ItemMapper {
             itemCreateDto.getDescription(),
             itemCreateDto.getAvailable(),
             null,
-            null
+            itemCreateDto.getRequestId() != null ? new ItemRequest(itemCreateDto.getRequestId(), null, null, null) : null
         );
     }
 
@@ -25,6 +26,8 @@ public class ItemMapper {
             item.getAvailable(),
             null,
             null,
+            null,
+            item.getRequest() != null ? item.getRequest().getId() : null,
             null
         );
     }
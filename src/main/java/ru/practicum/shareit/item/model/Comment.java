@@ -1,7 +1,6 @@
 package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,9 +11,7 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "comments")
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 public class Comment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,4 +30,16 @@ public class Comment {
 
     @Column(nullable = false)
     private LocalDateTime created;
+
+    @Version
+    private long version;
+
+    @Builder
+    public Comment(Long id, String text, Item item, User author, LocalDateTime created) {
+        this.id = id;
+        this.text = text;
+        this.item = item;
+        this.author = author;
+        this.created = created;
+    }
 }
\ No newline at end of file
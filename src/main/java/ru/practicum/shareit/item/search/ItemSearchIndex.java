@@ -0,0 +1,211 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания вещей.
+ * Отвечает на подстрочные запросы так же, как {@code ItemRepository.search}, но без полного сканирования таблицы.
+ * Списки вхождений упорядочены по id, поэтому страница результатов набирается проходом по самому короткому
+ * списку с проверкой подстроки и заканчивается, как только страница заполнена.
+ * Включается свойством {@code shareit.item.search.mode=index}, которое также определяет режим поиска
+ * для {@code ItemServiceImpl.search}.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM_SIZE = 3;
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchMode mode;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, IndexedItem> items = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.item.search.mode:like}") ItemSearchMode mode) {
+        this.itemRepository = itemRepository;
+        this.mode = mode;
+        this.enabled = mode == ItemSearchMode.INDEX;
+    }
+
+    public ItemSearchMode getMode() {
+        return mode;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            postings.clear();
+            PageRequest pageRequest = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<Item> page;
+            do {
+                page = itemRepository.findAll(pageRequest);
+                page.forEach(this::put);
+                pageRequest = pageRequest.next();
+            } while (page.hasNext());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        if (!enabled || item == null || item.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            drop(item.getId());
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        if (!enabled || itemId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            drop(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id подходящих вещей по возрастанию, начиная с {@code from}-го совпадения, не больше {@code size}.
+     */
+    public List<Long> search(String text, int from, int size) {
+        if (text == null || text.isBlank() || size <= 0) {
+            return List.of();
+        }
+        String query = normalize(text);
+        long limit = (long) from + size;
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>();
+            int matched = 0;
+            for (Long id : candidates(query)) {
+                IndexedItem indexed = items.get(id);
+                if (indexed != null && indexed.matches(query) && matched++ >= from) {
+                    result.add(id);
+                }
+                if (matched >= limit) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() < GRAM_SIZE) {
+            return items.navigableKeySet();
+        }
+        NavigableSet<Long> shortest = null;
+        for (String gram : grams(query)) {
+            NavigableSet<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            if (shortest == null || ids.size() < shortest.size()) {
+                shortest = ids;
+            }
+        }
+        return shortest;
+    }
+
+    private void put(Item item) {
+        IndexedItem indexed = new IndexedItem(normalize(item.getName()), normalize(item.getDescription()),
+                Item.isAvailable(item));
+        items.put(item.getId(), indexed);
+        for (String gram : indexed.grams()) {
+            postings.computeIfAbsent(gram, key -> new TreeSet<>()).add(item.getId());
+        }
+    }
+
+    private void drop(Long itemId) {
+        IndexedItem indexed = items.remove(itemId);
+        if (indexed == null) {
+            return;
+        }
+        for (String gram : indexed.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            result.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return result;
+    }
+
+    private record IndexedItem(String name, String description, boolean available) {
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        Set<String> grams() {
+            Set<String> result = ItemSearchIndex.grams(name);
+            result.addAll(ItemSearchIndex.grams(description));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.search;
+
+public enum ItemSearchMode {
+    LIKE,
+    INDEX,
+    FULLTEXT
+}
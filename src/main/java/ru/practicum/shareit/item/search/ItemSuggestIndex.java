@@ -0,0 +1,250 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Подсказки по началу названия доступных вещей: {@code limit} самых частых названий с этим началом (вес названия —
+ * число доступных вещей с ним), при равном весе — по алфавиту.
+ * Читатели работают с неизменяемым снимком: названия отсортированы, поэтому подходящие образуют отрезок, который
+ * находится бинарным поиском, а дерево отрезков по весам выдает из него лучшие за O(limit · log n) без просмотра
+ * всего отрезка. Изменения копятся в карте и переносятся в новый снимок фоновым потоком, поэтому чтение никогда
+ * не блокируется.
+ * <p>
+ * Карту меняет только этот поток: начальная загрузка, {@code put} и {@code remove} выполняются на нем по
+ * очереди, поэтому страница, прочитанная до изменения вещи, не перезапишет его. Поток останавливается по
+ * {@link ContextClosedEvent}, то есть до закрытия источника данных.
+ */
+@Component
+public class ItemSuggestIndex {
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, String> names = new HashMap<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-suggest-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Snapshot snapshot = Snapshot.of(new String[0], new int[0]);
+
+    public ItemSuggestIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        executor.execute(() -> {
+            PageRequest pageRequest = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+            Page<Item> page;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                page = itemRepository.findAll(pageRequest);
+                page.forEach(this::apply);
+                pageRequest = pageRequest.next();
+            } while (page.hasNext());
+            rebuild();
+        });
+    }
+
+    public void put(Item item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        change(() -> apply(item));
+    }
+
+    public void remove(Long itemId) {
+        if (itemId == null) {
+            return;
+        }
+        change(() -> names.remove(itemId));
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit < 1) {
+            return List.of();
+        }
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Snapshot current = snapshot;
+        int from = current.lowerBound(key);
+        int to = current.prefixEnd(key, from);
+        List<String> result = new ArrayList<>(Math.min(limit, to - from));
+        if (from == to) {
+            return result;
+        }
+        // отрезки-кандидаты упорядочены по лучшему названию в них; взятое название делит свой отрезок на два
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> current.better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[]{from, to, current.best(from, to)});
+        while (result.size() < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            result.add(current.names[best]);
+            if (range[0] < best) {
+                ranges.add(new int[]{range[0], best, current.best(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[]{best + 1, range[1], current.best(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Применяет принятые изменения и пересобирает снимок; возвращается, когда новый снимок опубликован.
+     */
+    public void refresh() {
+        CompletableFuture.runAsync(this::rebuild, executor).join();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rebuild() {
+        Map<String, Integer> counts = new HashMap<>();
+        names.values().forEach(name -> counts.merge(name, 1, Integer::sum));
+        String[] sortedNames = counts.keySet().toArray(new String[0]);
+        Arrays.sort(sortedNames, Comparator.comparing((String name) -> name.toLowerCase(Locale.ROOT))
+                .thenComparing(Comparator.naturalOrder()));
+        int[] weights = new int[sortedNames.length];
+        for (int i = 0; i < sortedNames.length; i++) {
+            weights[i] = counts.get(sortedNames[i]);
+        }
+        snapshot = Snapshot.of(sortedNames, weights);
+    }
+
+    private void apply(Item item) {
+        if (Item.isAvailable(item) && item.getName() != null) {
+            names.put(item.getId(), item.getName());
+        } else {
+            names.remove(item.getId());
+        }
+    }
+
+    /**
+     * Изменение и следующая за ним пересборка ставятся в очередь потока; пересборка, уже стоящая в очереди
+     * позади изменения, подхватит и его. После закрытия контекста изменения отбрасываются.
+     */
+    private void change(Runnable change) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            change.run();
+            if (refreshScheduled.compareAndSet(false, true) && !executor.isShutdown()) {
+                executor.execute(() -> {
+                    refreshScheduled.set(false);
+                    rebuild();
+                });
+            }
+        });
+    }
+
+    /**
+     * Различные названия по алфавиту, их веса и дерево отрезков: {@code tree[p]} — индекс лучшего названия
+     * в отрезке узла {@code p}, листья лежат с позиции {@code names.length}.
+     */
+    private record Snapshot(String[] keys, String[] names, int[] weights, int[] tree) {
+        static Snapshot of(String[] names, int[] weights) {
+            int size = names.length;
+            String[] keys = Arrays.stream(names)
+                    .map(name -> name.toLowerCase(Locale.ROOT))
+                    .toArray(String[]::new);
+            int[] tree = new int[2 * size];
+            Snapshot snapshot = new Snapshot(keys, names, weights, tree);
+            for (int i = 0; i < size; i++) {
+                tree[size + i] = i;
+            }
+            for (int p = size - 1; p > 0; p--) {
+                tree[p] = snapshot.better(tree[2 * p], tree[2 * p + 1]);
+            }
+            return snapshot;
+        }
+
+        int better(int i, int j) {
+            if (i < 0) {
+                return j;
+            }
+            return weights[i] > weights[j] || weights[i] == weights[j] && i < j ? i : j;
+        }
+
+        /**
+         * Индекс лучшего названия в {@code [from, to)}.
+         */
+        int best(int from, int to) {
+            int result = -1;
+            for (int l = from + names.length, r = to + names.length; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    result = better(result, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    result = better(result, tree[--r]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Конец отрезка названий, начинающихся с {@code key}; отрезок начинается с {@code from}.
+         */
+        int prefixEnd(String key, int from) {
+            int low = from;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].startsWith(key)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
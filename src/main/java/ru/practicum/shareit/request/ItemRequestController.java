@@ -1,9 +1,72 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.common.CurrentUser;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.sse.SseHub;
+import ru.practicum.shareit.common.sse.SseTopic;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+
+import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ItemRequestService itemRequestService;
+    private final SseHub sseHub;
+
+    public ItemRequestController(ItemRequestService itemRequestService, SseHub sseHub) {
+        this.itemRequestService = itemRequestService;
+        this.sseHub = sseHub;
+    }
+
+    @PostMapping
+    public ItemRequestDto create(@Valid @RequestBody ItemRequestCreateDto itemRequestCreateDto,
+                                 @CurrentUser SharerPrincipal user) {
+        return itemRequestService.create(itemRequestCreateDto, user);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDto>> findOwn(@CurrentUser SharerPrincipal user,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "100") @Positive @Max(1000) int limit) {
+        return toResponse(itemRequestService.findOwn(user, cursor, limit));
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> findOthers(@CurrentUser SharerPrincipal user,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "100") @Positive @Max(1000) int limit) {
+        return toResponse(itemRequestService.findOthers(user, cursor, limit));
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@CurrentUser SharerPrincipal user) {
+        return sseHub.subscribe(SseTopic.REQUESTS, user.id());
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto findById(@PathVariable Long requestId, @CurrentUser SharerPrincipal user) {
+        return itemRequestService.findById(requestId);
+    }
+
+    private ResponseEntity<List<ItemRequestDto>> toResponse(ItemRequestPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
+    }
 }
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    /**
+     * Условие продолжения после курсора по {@code (created DESC, id DESC)}. Внешнее {@code created <= :cursorCreated}
+     * дублирует смысл дизъюнкции, но дает планировщику диапазон по индексу вместо фильтрации всей ленты.
+     */
+    String SEEK = " AND r.created <= :cursorCreated" +
+            " AND (r.created < :cursorCreated OR r.id < :cursorId)" +
+            " ORDER BY r.created DESC, r.id DESC";
+
+    @Override
+    @EntityGraph(attributePaths = {"requestor"})
+    Optional<ItemRequest> findById(Long id);
+
+    @EntityGraph(attributePaths = {"requestor"})
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id = :requestorId" + SEEK)
+    List<ItemRequest> findPageByRequestor(
+            @Param("requestorId") Long requestorId,
+            @Param("cursorCreated") LocalDateTime cursorCreated,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"requestor"})
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :requestorId" + SEEK)
+    List<ItemRequest> findPageByRequestorNot(
+            @Param("requestorId") Long requestorId,
+            @Param("cursorCreated") LocalDateTime cursorCreated,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Открытые запросы (без ответивших вещей) после {@code afterId} в порядке id, для загрузки индекса подбора.
+     */
+    @Query("SELECT r FROM ItemRequest r WHERE r.id > :afterId" +
+            " AND NOT EXISTS (SELECT i.id FROM Item i WHERE i.request = r) ORDER BY r.id")
+    List<ItemRequest> findOpenAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
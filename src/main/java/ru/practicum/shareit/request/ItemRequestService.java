@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+
+public interface ItemRequestService {
+    ItemRequestDto create(ItemRequestCreateDto itemRequestCreateDto, SharerPrincipal principal);
+
+    ItemRequestPage findOwn(SharerPrincipal principal, String cursor, int limit);
+
+    ItemRequestPage findOthers(SharerPrincipal principal, String cursor, int limit);
+
+    ItemRequestDto findById(Long requestId);
+}
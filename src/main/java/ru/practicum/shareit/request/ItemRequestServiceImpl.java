@@ -0,0 +1,98 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+import ru.practicum.shareit.common.sse.SseHub;
+import ru.practicum.shareit.common.sse.SseTopic;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemAnswerView;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.exceptions.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.match.ItemRequestMatchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    public static final String ITEM_REQUEST_EVENT = "item-request";
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestMatchIndex itemRequestMatchIndex;
+    private final SseHub sseHub;
+
+    @Override
+    public ItemRequestDto create(ItemRequestCreateDto itemRequestCreateDto, SharerPrincipal principal) {
+        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestCreateDto);
+        itemRequest.setRequestor(principal.toUser());
+        // TIMESTAMP хранит микросекунды: курсор, выданный по этому значению, должен совпасть с сохраненным
+        itemRequest.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        itemRequestMatchIndex.add(saved);
+        ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(saved, List.of());
+        sseHub.broadcast(SseTopic.REQUESTS, principal.id(), ITEM_REQUEST_EVENT, saved.getId(), itemRequestDto);
+        return itemRequestDto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestPage findOwn(SharerPrincipal principal, String cursor, int limit) {
+        ItemRequestCursor position = ItemRequestCursor.decode(cursor);
+        return toPage(itemRequestRepository.findPageByRequestor(principal.id(),
+                position.created(), position.id(), PageRequest.of(0, limit + 1)), limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestPage findOthers(SharerPrincipal principal, String cursor, int limit) {
+        ItemRequestCursor position = ItemRequestCursor.decode(cursor);
+        return toPage(itemRequestRepository.findPageByRequestorNot(principal.id(),
+                position.created(), position.id(), PageRequest.of(0, limit + 1)), limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto findById(Long requestId) {
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ItemRequestNotFoundException(
+                        String.format("Запрос с id %d не найден", requestId)));
+        return ItemRequestMapper.toItemRequestDto(itemRequest,
+                findAnswers(List.of(requestId)).getOrDefault(requestId, List.of()));
+    }
+
+    private ItemRequestPage toPage(List<ItemRequest> requests, int limit) {
+        List<ItemRequest> page = requests.size() > limit ? requests.subList(0, limit) : requests;
+        String nextCursor = requests.size() > limit ? ItemRequestCursor.after(page.get(page.size() - 1)).encode() : null;
+        if (page.isEmpty()) {
+            return new ItemRequestPage(List.of(), null);
+        }
+        Map<Long, List<ItemAnswerDto>> answers = findAnswers(page.stream().map(ItemRequest::getId).toList());
+        return new ItemRequestPage(page.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    private Map<Long, List<ItemAnswerDto>> findAnswers(List<Long> requestIds) {
+        return itemRepository.findAnswersByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemAnswerView::getRequestId,
+                        Collectors.mapping(ItemRequestMapper::toItemAnswerDto, Collectors.toList())));
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.request.dto;
+
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * Позиция в ленте запросов, упорядоченной по {@code (created DESC, id DESC)}.
+ * Клиенту передается как {@link KeysetCursor}.
+ */
+public record ItemRequestCursor(LocalDateTime created, Long id) {
+    public static ItemRequestCursor first() {
+        return of(KeysetCursor.first());
+    }
+
+    public static ItemRequestCursor after(ItemRequest request) {
+        return new ItemRequestCursor(request.getCreated(), request.getId());
+    }
+
+    public static ItemRequestCursor decode(String value) {
+        return of(KeysetCursor.decode(value));
+    }
+
+    public String encode() {
+        return new KeysetCursor(created, id).encode();
+    }
+
+    private static ItemRequestCursor of(KeysetCursor cursor) {
+        return new ItemRequestCursor(cursor.position(), cursor.id());
+    }
+}
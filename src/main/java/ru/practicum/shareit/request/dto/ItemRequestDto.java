@@ -2,14 +2,19 @@ package ru.practicum.shareit.request.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 public class ItemRequestDto {
+    private Long id;
     private String description;
     private UserDto requestor;
     private LocalDateTime created;
+    private List<ItemAnswerDto> items;
 }
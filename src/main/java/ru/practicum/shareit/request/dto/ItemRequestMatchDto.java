@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Открытый запрос, который может закрыть только что созданная вещь.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemRequestMatchDto {
+    private Long id;
+    private String description;
+    private LocalDateTime created;
+    private int score;
+}
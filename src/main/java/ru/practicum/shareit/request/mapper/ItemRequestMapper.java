@@ -0,0 +1,46 @@
+package ru.practicum.shareit.request.mapper;
+
+import ru.practicum.shareit.item.dto.ItemAnswerView;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.mapper.UserMapper;
+
+import java.util.List;
+
+public class ItemRequestMapper {
+    public static ItemRequest toItemRequest(ItemRequestCreateDto itemRequestCreateDto) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription(itemRequestCreateDto.getDescription());
+        return itemRequest;
+    }
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemAnswerDto> items) {
+        return new ItemRequestDto(
+            itemRequest.getId(),
+            itemRequest.getDescription(),
+            UserMapper.toUserDto(itemRequest.getRequestor()),
+            itemRequest.getCreated(),
+            items
+        );
+    }
+
+    public static ItemAnswerDto toItemAnswerDto(ItemAnswerView view) {
+        return new ItemAnswerDto(
+            view.getId(),
+            view.getName(),
+            view.getOwnerId()
+        );
+    }
+
+    public static ItemRequestMatchDto toItemRequestMatchDto(ItemRequest itemRequest, int score) {
+        return new ItemRequestMatchDto(
+            itemRequest.getId(),
+            itemRequest.getDescription(),
+            itemRequest.getCreated(),
+            score
+        );
+    }
+}
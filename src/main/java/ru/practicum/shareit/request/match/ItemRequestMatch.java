@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request.match;
+
+/**
+ * Открытый запрос, подходящий под вещь, и число совпавших слов.
+ */
+public record ItemRequestMatch(Long requestId, int score) {
+}
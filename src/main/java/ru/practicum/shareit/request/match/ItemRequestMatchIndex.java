@@ -0,0 +1,286 @@
+package ru.practicum.shareit.request.match;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по словам описаний открытых запросов. Запрос считается открытым, пока на него
+ * не ответили вещью. Списки запросов по словам хранятся отсортированными массивами id, поэтому подбор
+ * кандидатов для новой вещи ограничен {@code candidate-limit} идентификаторами и не зависит от общего
+ * числа запросов: кандидаты берутся из самых редких слов, начиная с новых запросов, а затем оцениваются
+ * числом совпавших слов бинарным поиском по спискам.
+ */
+@Component
+public class ItemRequestMatchIndex {
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    private static final String STEM_SUFFIXES = "аеёиийоуыьэюяaeiouy";
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final boolean enabled;
+    private final int candidateLimit;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, OpenRequest> requests = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    public ItemRequestMatchIndex(ItemRequestRepository itemRequestRepository,
+                                 @Value("${shareit.request.match.enabled:false}") boolean enabled,
+                                 @Value("${shareit.request.match.candidate-limit:500}") int candidateLimit) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.enabled = enabled;
+        this.candidateLimit = candidateLimit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            requests.clear();
+            postings.clear();
+            long afterId = 0;
+            List<ItemRequest> page;
+            do {
+                page = itemRequestRepository.findOpenAfter(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (ItemRequest request : page) {
+                    put(request);
+                    afterId = request.getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(ItemRequest request) {
+        if (!enabled || request == null || request.getId() == null || request.getRequestor() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            drop(request.getId());
+            put(request);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long requestId) {
+        if (!enabled || requestId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            drop(requestId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Открытые запросы, с которыми у текста есть общие слова, в порядке убывания числа совпавших слов,
+     * при равенстве сначала новые. Запросы пользователя {@code excludeRequestorId} пропускаются.
+     */
+    public List<ItemRequestMatch> match(String text, Long excludeRequestorId, int limit) {
+        if (!enabled || text == null || limit < 1) {
+            return List.of();
+        }
+        Set<String> terms = terms(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        long excluded = excludeRequestorId != null ? excludeRequestorId : Long.MIN_VALUE;
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            if (lists.isEmpty()) {
+                return List.of();
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+            if (lists.size() > MAX_QUERY_TERMS) {
+                lists = lists.subList(0, MAX_QUERY_TERMS);
+            }
+
+            Set<Long> candidates = new LinkedHashSet<>();
+            for (Postings list : lists) {
+                for (int i = list.size() - 1; i >= 0 && candidates.size() < candidateLimit; i--) {
+                    long id = list.ids[i];
+                    if (requests.get(id).requestorId() != excluded) {
+                        candidates.add(id);
+                    }
+                }
+                if (candidates.size() >= candidateLimit) {
+                    break;
+                }
+            }
+
+            List<ItemRequestMatch> result = new ArrayList<>(candidates.size());
+            for (Long id : candidates) {
+                int score = 0;
+                for (Postings list : lists) {
+                    if (list.contains(id)) {
+                        score++;
+                    }
+                }
+                result.add(new ItemRequestMatch(id, score));
+            }
+            result.sort(Comparator.comparingInt(ItemRequestMatch::score).reversed()
+                    .thenComparing(ItemRequestMatch::requestId, Comparator.reverseOrder()));
+            return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return requests.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(ItemRequest request) {
+        Set<String> terms = terms(request.getDescription());
+        String[] canonical = new String[terms.size()];
+        int n = 0;
+        for (String term : terms) {
+            Postings list = postings.computeIfAbsent(term, Postings::new);
+            list.add(request.getId());
+            canonical[n++] = list.term;
+        }
+        requests.put(request.getId(), new OpenRequest(request.getRequestor().getId(), canonical));
+    }
+
+    private void drop(Long requestId) {
+        OpenRequest removed = requests.remove(requestId);
+        if (removed == null) {
+            return;
+        }
+        for (String term : removed.terms()) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.remove(requestId);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) {
+            return result;
+        }
+        String value = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= value.length(); i++) {
+            boolean letter = i < value.length() && Character.isLetterOrDigit(value.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String term = stem(value.substring(start, i));
+                if (term.length() >= MIN_TERM_LENGTH) {
+                    result.add(term);
+                }
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Грубое приведение словоформ: отбрасывает конечные гласные, {@code ь} и {@code й}, чтобы «дрель»,
+     * «дрели» и «дрелью» совпадали.
+     */
+    private static String stem(String word) {
+        int end = word.length();
+        while (end > MIN_TERM_LENGTH && STEM_SUFFIXES.indexOf(word.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return word.substring(0, end);
+    }
+
+    private record OpenRequest(long requestorId, String[] terms) {
+    }
+
+    private static final class Postings {
+        private final String term;
+        private long[] ids = new long[2];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insert(-position - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        private void insert(int position, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
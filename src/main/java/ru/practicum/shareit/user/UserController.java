@@ -2,6 +2,8 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.CurrentUser;
+import ru.practicum.shareit.common.SharerPrincipal;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
@@ -25,6 +27,11 @@ public class UserController {
         return userService.update(userId, userUpdateDto);
     }
 
+    @GetMapping("/me")
+    public UserDto findCurrent(@CurrentUser SharerPrincipal user) {
+        return user.toUserDto();
+    }
+
     @GetMapping("/{userId}")
     public UserDto findById(@PathVariable Long userId) {
         return userService.findById(userId);
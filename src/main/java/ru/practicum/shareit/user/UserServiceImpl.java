@@ -1,22 +1,33 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.metrics.MetricsConfig;
+import ru.practicum.shareit.user.cache.UnknownUserCache;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.event.UserUpdatedEvent;
 import ru.practicum.shareit.user.exception.EmailAlreadyUsedException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UnknownUserCache unknownUserCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDto create(UserCreateDto userCreateDto) {
@@ -26,7 +37,9 @@ public class UserServiceImpl implements UserService {
         }
 
         User user = UserMapper.toUser(userCreateDto);
-        return UserMapper.toUserDto(userRepository.save(user));
+        UserDto created = UserMapper.toUserDto(userRepository.save(user));
+        unknownUserCache.evict(created.getId());
+        return created;
     }
 
     @Override
@@ -48,19 +61,29 @@ public class UserServiceImpl implements UserService {
             existingUser.setName(userUpdateDto.getName());
         }
 
-        return UserMapper.toUserDto(userRepository.save(existingUser));
+        UserDto updated = UserMapper.toUserDto(userRepository.save(existingUser));
+        eventPublisher.publishEvent(new UserUpdatedEvent(updated.getId(), updated.getName(), updated.getEmail()));
+        return updated;
     }
 
     @Override
     public UserDto findById(Long id) {
-        User user = userRepository.getUserById(id);
-        if (user == null) {
-            throw new UserNotFoundException(String.format("Пользователь с id %d не найден", id));
+        // без своей транзакции: известный отсутствующий id отклоняется, не занимая соединение из пула
+        if (unknownUserCache.isUnknown(id)) {
+            throw userNotFound(id);
+        }
+        long stamp = unknownUserCache.stamp(id);
+        // findById, а не getUserById: поиск по ключу обслуживается регионом пользователей кэша второго уровня
+        Optional<User> user = userRepository.findById(id);
+        if (user.isEmpty()) {
+            unknownUserCache.markUnknown(id, stamp);
+            throw userNotFound(id);
         }
-        return UserMapper.toUserDto(user);
+        return UserMapper.toUserDto(user.get());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> findAll() {
         return userRepository.findAll().stream()
             .map(UserMapper::toUserDto)
@@ -74,5 +97,11 @@ public class UserServiceImpl implements UserService {
             throw new UserNotFoundException(String.format("Пользователь с id %d не найден", userId));
         }
         userRepository.delete(user);
+        unknownUserCache.evict(userId);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
+    }
+
+    private static UserNotFoundException userNotFound(Long id) {
+        return new UserNotFoundException(String.format("Пользователь с id %d не найден", id));
     }
 }
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Отрицательный кэш перед {@code UserService.findById}: id, которых нет в базе, запоминаются на короткое время,
+ * поэтому поток запросов с несуществующим X-Sharer-User-Id не доходит до базы независимо от кэша второго уровня.
+ * Существующих пользователей кэширует регион {@code users} Hibernate. Размер ограничен; создание и удаление
+ * пользователя сбрасывают запись, а загрузка, пересекшаяся со сбросом, отсутствие не запоминает.
+ * Статистика публикуется как {@code cache.*{cache=users}}: попадание — отклоненный без базы неизвестный id.
+ */
+@Component
+public class UnknownUserCache {
+    public static final String CACHE_NAME = "users";
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, Boolean> unknown;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    @Autowired
+    public UnknownUserCache(@Value("${shareit.user.cache.max-size:10000}") int maxSize,
+                            @Value("${shareit.user.cache.negative-ttl-ms:5000}") long negativeTtlMs,
+                            MeterRegistry meterRegistry) {
+        this(maxSize, negativeTtlMs, meterRegistry, System::nanoTime);
+    }
+
+    UnknownUserCache(int maxSize, long negativeTtlMs, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(negativeTtlMs))
+                .ticker(clock::getAsLong)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unknown, CACHE_NAME);
+    }
+
+    public boolean isUnknown(Long id) {
+        return unknown.getIfPresent(id) != null;
+    }
+
+    /**
+     * Метка для {@link #markUnknown}: берется до обращения к базе.
+     */
+    public long stamp(Long id) {
+        return stamps.get(stripe(id));
+    }
+
+    /**
+     * Запоминает отсутствие id, если после взятия метки пользователь с этим id не создавался и не удалялся.
+     */
+    public void markUnknown(Long id, long stamp) {
+        unknown.asMap().compute(id, (key, current) -> stamps.get(stripe(id)) == stamp ? Boolean.TRUE : current);
+    }
+
+    public void evict(Long id) {
+        stamps.incrementAndGet(stripe(id));
+        unknown.invalidate(id);
+    }
+
+    public long size() {
+        unknown.cleanUp();
+        return unknown.estimatedSize();
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.user.event;
+
+/**
+ * Публикуется после удаления пользователя.
+ */
+public record UserDeletedEvent(Long id) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.user.event;
+
+/**
+ * Публикуется после сохранения измененного пользователя; слушатели обновляют свои копии имени и email.
+ */
+public record UserUpdatedEvent(Long id, String name, String email) {
+}
@@ -1,7 +1,8 @@
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE
+    email VARCHAR(255) NOT NULL UNIQUE,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS item_requests (
@@ -17,7 +18,8 @@ CREATE TABLE IF NOT EXISTS items (
     description VARCHAR(1000) NOT NULL,
     available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL REFERENCES users(id),
-    request_id BIGINT REFERENCES item_requests(id)
+    request_id BIGINT REFERENCES item_requests(id),
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
@@ -27,13 +29,31 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL REFERENCES items(id),
     booker_id BIGINT NOT NULL REFERENCES users(id),
     status VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT valid_dates CHECK (end_date > start_date)
 );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text VARCHAR(1000) NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id),
     author_id BIGINT NOT NULL REFERENCES users(id),
-    created TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+    created TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS item_requests_requestor_created_idx ON item_requests (requestor_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS item_requests_created_idx ON item_requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date, end_date);
+CREATE INDEX IF NOT EXISTS bookings_item_status_end_idx ON bookings (item_id, status, end_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id, created);
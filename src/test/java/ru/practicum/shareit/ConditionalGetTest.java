@@ -0,0 +1,179 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag и {@code If-None-Match} для вещей и бронирований: неизменный ресурс отдается ответом {@code 304}
+ * за один запрос к базе, любое изменение вещи, ее последнего или следующего бронирования, комментариев
+ * или упомянутых в ответе пользователей меняет ETag.
+ */
+@SpringBootTest(properties = "shareit.hibernate.statistics=true")
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        booker = userRepository.save(new User(null, "Booker", UUID.randomUUID() + "@test.com"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+    }
+
+    private String eTag(String path, User user) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private MvcResult conditional(String path, User user, String eTag) throws Exception {
+        return mockMvc.perform(get(path)
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andReturn();
+    }
+
+    private Booking booking(LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker, status));
+    }
+
+    @Test
+    void getItem_Unchanged_ShouldReturnNotModifiedWithSingleQuery() throws Exception {
+        booking(LocalDateTime.now().minusDays(3), BookingStatus.APPROVED);
+        booking(LocalDateTime.now().plusDays(3), BookingStatus.APPROVED);
+        commentRepository.save(new Comment(null, "Хорошая", item, booker, LocalDateTime.now()));
+        String path = "/items/" + item.getId();
+        String eTag = eTag(path, booker);
+        assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MvcResult result = conditional(path, booker, eTag);
+
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals(eTag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, result.getResponse().getContentLength());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(eTag, eTag(path, owner));
+    }
+
+    @Test
+    void getItem_ItemUpdated_ShouldReturnNewBody() throws Exception {
+        String path = "/items/" + item.getId();
+        String eTag = eTag(path, owner);
+
+        mockMvc.perform(patch(path)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Перфоратор\"}"))
+                .andExpect(status().isOk());
+
+        MvcResult result = conditional(path, owner, eTag);
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Перфоратор"));
+        assertNotEquals(eTag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getItem_EnrichmentChanged_ShouldChangeETag() throws Exception {
+        String path = "/items/" + item.getId();
+        String initial = eTag(path, owner);
+
+        Booking next = booking(LocalDateTime.now().plusDays(3), BookingStatus.WAITING);
+        assertEquals(initial, eTag(path, owner), "ожидающее бронирование не попадает в ответ");
+
+        next.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(next);
+        String withNext = eTag(path, owner);
+        assertNotEquals(initial, withNext);
+
+        commentRepository.save(new Comment(null, "Хорошая", item, booker, LocalDateTime.now()));
+        String withComment = eTag(path, owner);
+        assertNotEquals(withNext, withComment);
+
+        User renamed = userRepository.findById(booker.getId()).orElseThrow();
+        renamed.setName("Renamed");
+        userRepository.save(renamed);
+        assertNotEquals(withComment, eTag(path, owner));
+    }
+
+    @Test
+    void getItems_ShouldBeConditionalPerOwner() throws Exception {
+        String eTag = eTag("/items", owner);
+        assertEquals(304, conditional("/items", owner, eTag).getResponse().getStatus());
+        assertEquals(200, conditional("/items", booker, eTag).getResponse().getStatus());
+
+        itemRepository.save(new Item(null, "Пила", "Ручная пила", true, owner, null));
+
+        assertEquals(200, conditional("/items", owner, eTag).getResponse().getStatus());
+    }
+
+    @Test
+    void getBooking_ShouldBeConditionalAndCheckAccessFirst() throws Exception {
+        Booking booking = booking(LocalDateTime.now().plusDays(3), BookingStatus.WAITING);
+        String path = "/bookings/" + booking.getId();
+        String eTag = eTag(path, booker);
+        User stranger = userRepository.save(new User(null, "Stranger", UUID.randomUUID() + "@test.com"));
+
+        assertEquals(304, conditional(path, owner, eTag).getResponse().getStatus());
+        assertEquals(403, conditional(path, stranger, eTag).getResponse().getStatus());
+
+        mockMvc.perform(patch(path + "?approved=true").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        MvcResult result = conditional(path, booker, eTag);
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString().contains("APPROVED"));
+    }
+
+    @Test
+    void getItem_Unknown_ShouldReturnNotFound() throws Exception {
+        assertEquals(404, conditional("/items/" + Long.MAX_VALUE, owner, "\"x\"").getResponse().getStatus());
+    }
+}
@@ -0,0 +1,377 @@
+package ru.practicum.shareit;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы запросов репозиториев на засеянной базе. Каждый метод репозитория из каталога вызывается по-настоящему,
+ * SQL, который подготовил Hibernate, перехватывается {@link StatementInspector} и отдается в EXPLAIN без значений
+ * параметров (план, общий для любых значений). Тест падает, если план содержит полный просмотр таблицы или если
+ * в репозитории появился метод, не попавший ни в каталог, ни в список исключений.
+ * <p>
+ * По умолчанию база — отдельная H2. Она сама индексирует столбцы внешних ключей, а PostgreSQL нет, поэтому
+ * внешние ключи удаляются: планировщику остаются только индексы из schema.sql. С {@code -Dshareit.plans.url}
+ * (профиль {@code postgres}) тот же каталог проверяется на PostgreSQL; база должна быть одноразовой — таблицы
+ * засеваются и в конце удаляются.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    private static final String POSTGRES_URL = System.getProperty("shareit.plans.url", "");
+    private static final boolean POSTGRES = !POSTGRES_URL.isBlank();
+    private static final int USERS = 200;
+    private static final int ITEMS = 1_000;
+    private static final int REQUESTS = 2_000;
+    private static final int BOOKINGS_PER_ITEM = 20;
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final Set<BookingStatus> ACTIVE = Set.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final PageRequest PAGE = PageRequest.of(0, 101);
+
+    private static final Map<String, String> EXEMPT = Map.of(
+            "ItemRepository.search",
+            "поиск подстроки: в PostgreSQL обслуживается GIN-индексами pg_trgm (schema-postgresql.sql)",
+            "ItemRepository.searchRanked",
+            "поиск подстроки: в PostgreSQL обслуживается GIN-индексами pg_trgm (schema-postgresql.sql)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private long firstUser;
+    private long firstItem;
+    private long firstRequest;
+    private long firstBooking;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (POSTGRES) {
+            registry.add("spring.datasource.url", () -> POSTGRES_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("shareit.plans.username", "shareit"));
+            registry.add("spring.datasource.password", () -> System.getProperty("shareit.plans.password", "shareit"));
+            registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+            registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+            registry.add("spring.sql.init.mode", () -> "always");
+            registry.add("spring.sql.init.platform", () -> "postgresql");
+        } else {
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:mem:query-plans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        HibernatePropertiesCustomizer captureStatements() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CapturedStatements());
+        }
+    }
+
+    @BeforeAll
+    void dropForeignKeysAndSeed() {
+        jdbcTemplate.queryForList("SELECT table_name, constraint_name FROM information_schema.table_constraints " +
+                        "WHERE constraint_type = 'FOREIGN KEY'")
+                .forEach(row -> jdbcTemplate.execute("ALTER TABLE " + row.get("table_name") +
+                        " DROP CONSTRAINT \"" + row.get("constraint_name") + "\""));
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{"User " + i, "user" + i + "@test.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+        firstUser = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+
+        List<Object[]> requests = new ArrayList<>();
+        LocalDateTime requestBase = LocalDateTime.of(2029, 1, 1, 0, 0);
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(new Object[]{"Request " + i, firstUser + i % USERS,
+                    Timestamp.valueOf(requestBase.plusMinutes(i * 17L))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO item_requests (description, requestor_id, created) VALUES (?, ?, ?)",
+                requests);
+        firstRequest = jdbcTemplate.queryForObject("SELECT MIN(id) FROM item_requests", Long.class);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{"Item " + i, "Description " + i, firstUser + i % USERS,
+                    i % 4 == 0 ? firstRequest + i : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id, request_id) " +
+                "VALUES (?, ?, true, ?, ?)", items);
+        firstItem = jdbcTemplate.queryForObject("SELECT MIN(id) FROM items", Long.class);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2029, 1, 1, 0, 0);
+        String[] statuses = {"APPROVED", "WAITING", "REJECTED", "CANCELED"};
+        for (int item = 0; item < ITEMS; item++) {
+            for (int n = 0; n < BOOKINGS_PER_ITEM; n++) {
+                LocalDateTime start = base.plusDays(n * 30L).plusHours(item % 24);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(3)),
+                        firstItem + item, firstUser + (item + n) % USERS, statuses[n % statuses.length]});
+            }
+            comments.add(new Object[]{"Comment " + item, firstItem + item, firstUser + item % USERS});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?)", bookings);
+        firstBooking = jdbcTemplate.queryForObject("SELECT MIN(id) FROM bookings", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (text, item_id, author_id) VALUES (?, ?, ?)", comments);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void dropTables() {
+        jdbcTemplate.execute(POSTGRES
+                ? "DROP TABLE IF EXISTS comments, bookings, items, item_requests, users CASCADE"
+                : "DROP ALL OBJECTS");
+    }
+
+    private Map<String, Runnable> catalog() {
+        long owner = firstUser + 7;
+        long booker = firstUser + 7;
+        long item = firstItem + 70;
+        List<Long> itemIds = List.of(item, item + 1, item + 2);
+        List<Long> bookingIds = List.of(firstBooking + 10, firstBooking + 20, firstBooking + 30);
+        long cursorId = Long.MAX_VALUE;
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("BookingRepository.findById", () -> bookingRepository.findById(firstBooking + 10));
+        queries.put("BookingRepository.findAllByIdIn", () -> bookingRepository.findAllByIdIn(bookingIds));
+        queries.put("BookingRepository.findVersionsById", () -> bookingRepository.findVersionsById(firstBooking + 10));
+        queries.put("BookingRepository.streamAllByOwner", () -> {
+            try (Stream<Booking> stream = bookingRepository.streamAllByOwner(owner)) {
+                stream.forEach(booking -> { });
+            }
+        });
+        queries.put("BookingRepository.lockByIdsAndStatusAndOwner",
+                () -> bookingRepository.lockByIdsAndStatusAndOwner(bookingIds, BookingStatus.WAITING, owner));
+        queries.put("BookingRepository.updateStatusIfOwnedAndInStatus",
+                () -> bookingRepository.updateStatusIfOwnedAndInStatus(bookingIds, owner, BookingStatus.WAITING,
+                        BookingStatus.APPROVED));
+        queries.put("BookingRepository.findPageByBooker",
+                () -> bookingRepository.findPageByBooker(booker, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findPageByBookerAndStatus",
+                () -> bookingRepository.findPageByBookerAndStatus(booker, BookingStatus.WAITING, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findCurrentPageByBooker",
+                () -> bookingRepository.findCurrentPageByBooker(booker, NOW, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findPastPageByBooker",
+                () -> bookingRepository.findPastPageByBooker(booker, NOW, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findFuturePageByBooker",
+                () -> bookingRepository.findFuturePageByBooker(booker, NOW, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findPageByOwner",
+                () -> bookingRepository.findPageByOwner(owner, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findPageByOwnerAndStatus",
+                () -> bookingRepository.findPageByOwnerAndStatus(owner, BookingStatus.WAITING, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findCurrentPageByOwner",
+                () -> bookingRepository.findCurrentPageByOwner(owner, NOW, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findPastPageByOwner",
+                () -> bookingRepository.findPastPageByOwner(owner, NOW, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findFuturePageByOwner",
+                () -> bookingRepository.findFuturePageByOwner(owner, NOW, NOW, cursorId, PAGE));
+        queries.put("BookingRepository.findByBookerIdAndItemIdAndStatusAndEndBefore",
+                () -> bookingRepository.findByBookerIdAndItemIdAndStatusAndEndBefore(
+                        booker, item, BookingStatus.APPROVED, LocalDateTime.of(2029, 1, 1, 0, 0)));
+        queries.put("BookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(
+                        item, BookingStatus.APPROVED, LocalDateTime.of(2029, 1, 1, 0, 0)));
+        queries.put("BookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
+                        item, BookingStatus.APPROVED, LocalDateTime.of(2031, 1, 1, 0, 0)));
+        queries.put("BookingRepository.existsOverlapping",
+                () -> bookingRepository.existsOverlapping(item, NOW, NOW.plusDays(3), ACTIVE));
+        queries.put("BookingRepository.findBusyIntervals",
+                () -> bookingRepository.findBusyIntervals(item, ACTIVE, NOW, NOW.plusDays(30)));
+        queries.put("BookingRepository.findBusyIntervalsByItemIds",
+                () -> bookingRepository.findBusyIntervalsByItemIds(itemIds, ACTIVE, NOW, NOW.plusDays(30)));
+        queries.put("BookingRepository.findAllWithBookerByItemIdAndStatus",
+                () -> bookingRepository.findAllWithBookerByItemIdAndStatus(item, BookingStatus.APPROVED));
+        queries.put("BookingRepository.findLastAndNextApprovedByItemIds",
+                () -> bookingRepository.findLastAndNextApprovedByItemIds(itemIds, NOW));
+
+        queries.put("ItemRepository.findAllByOwnerId", () -> itemRepository.findAllByOwnerId(owner));
+        queries.put("ItemRepository.findAnswersByRequestIds",
+                () -> itemRepository.findAnswersByRequestIds(List.of(firstRequest, firstRequest + 4)));
+        queries.put("ItemRepository.findVersionsById", () -> itemRepository.findVersionsById(item, NOW));
+        queries.put("ItemRepository.findVersionsByOwnerId", () -> itemRepository.findVersionsByOwnerId(owner, NOW));
+
+        queries.put("ItemRequestRepository.findById", () -> itemRequestRepository.findById(firstRequest + 10));
+        queries.put("ItemRequestRepository.findPageByRequestor",
+                () -> itemRequestRepository.findPageByRequestor(owner, NOW, cursorId, PAGE));
+        queries.put("ItemRequestRepository.findPageByRequestorNot",
+                () -> itemRequestRepository.findPageByRequestorNot(owner, NOW, cursorId, PAGE));
+        queries.put("ItemRequestRepository.findOpenAfter",
+                () -> itemRequestRepository.findOpenAfter(firstRequest + 10, PageRequest.of(0, 10_000)));
+
+        queries.put("CommentRepository.findAllByItemId", () -> commentRepository.findAllByItemId(item));
+        queries.put("CommentRepository.findAllByItemIdIn", () -> commentRepository.findAllByItemIdIn(itemIds));
+
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail("user7@test.com"));
+        queries.put("UserRepository.getUserById", () -> userRepository.getUserById(firstUser + 7));
+        return queries;
+    }
+
+    @Test
+    void everyRepositoryQuery_ShouldBeInCatalog() {
+        Map<String, Runnable> catalog = catalog();
+        List<Class<?>> repositories = List.of(BookingRepository.class, ItemRepository.class,
+                ItemRequestRepository.class, CommentRepository.class, UserRepository.class);
+        TreeSet<String> missing = new TreeSet<>();
+        for (Class<?> repository : repositories) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> !method.isSynthetic() && !method.isDefault())
+                    .map(Method::getName)
+                    .map(name -> repository.getSimpleName() + "." + name)
+                    .filter(key -> !catalog.containsKey(key) && !EXEMPT.containsKey(key))
+                    .forEach(missing::add);
+        }
+
+        assertTrue(missing.isEmpty(), "Нет плана запроса для методов: " + missing);
+    }
+
+    @Test
+    void hotQueries_ShouldNotScanTables() {
+        Map<String, String> scans = new LinkedHashMap<>();
+        catalog().forEach((key, query) -> {
+            List<String> statements = CapturedStatements.during(query);
+            assertFalse(statements.isEmpty(), key + ": запрос не дошел до базы");
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (POSTGRES ? plan.contains("Seq Scan") : plan.contains(".tableScan")) {
+                    scans.put(key, sql + "\n" + plan);
+                }
+            }
+        });
+
+        assertTrue(scans.isEmpty(), () -> scans.entrySet().stream()
+                .map(entry -> entry.getKey() + ":\n" + entry.getValue())
+                .collect(Collectors.joining("\n\n", "Полный просмотр таблицы:\n", "")));
+    }
+
+    /**
+     * H2 строит план при подготовке, поэтому параметрам достаточно NULL. PostgreSQL планирует с учетом значений,
+     * так что запрос готовится под именем и объясняется его общий план; последовательный просмотр запрещен,
+     * и {@code Seq Scan} в плане значит, что подходящего индекса нет.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            List<String> lines = new ArrayList<>();
+            if (!POSTGRES) {
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    int parameters = statement.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= parameters; i++) {
+                        statement.setNull(i, Types.NULL);
+                    }
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            lines.add(rows.getString(1));
+                        }
+                    }
+                }
+                return String.join("\n", lines);
+            }
+            StringBuilder numbered = new StringBuilder();
+            int parameters = 0;
+            for (char c : sql.toCharArray()) {
+                if (c == '?') {
+                    numbered.append('$').append(++parameters);
+                } else {
+                    numbered.append(c);
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE query_plan AS " + numbered);
+                String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+                try (ResultSet rows = statement.executeQuery("EXPLAIN EXECUTE query_plan" + arguments)) {
+                    while (rows.next()) {
+                        lines.add(rows.getString(1));
+                    }
+                } finally {
+                    statement.execute("DEALLOCATE query_plan");
+                    statement.execute("RESET plan_cache_mode");
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+            return String.join("\n", lines);
+        });
+    }
+
+    /**
+     * SQL, подготовленный Hibernate в текущем потоке, пока выполняется запрос из каталога.
+     */
+    static class CapturedStatements implements StatementInspector {
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+
+        static List<String> during(Runnable query) {
+            List<String> captured = new ArrayList<>();
+            CAPTURED.set(captured);
+            try {
+                query.run();
+            } finally {
+                CAPTURED.remove();
+            }
+            return captured;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.common.VirtualThreadPinningMonitor;
+import ru.practicum.shareit.common.jdbc.ConnectionAdmissionDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение платформенных и виртуальных потоков на одной и той же нагрузке: {@value #IN_FLIGHT} одновременных
+ * запросов к {@code GET /bookings/owner} и {@code GET /items} при 50 потоках Tomcat и пуле из 10 соединений.
+ * Результаты печатаются таблицей; тест проверяет, что оба режима обслуживают всплеск без ошибок.
+ * Медиана в секунды — это очередь, а не время обработки: при {@value #IN_FLIGHT} запросах в полете
+ * по закону Литтла запрос ждет около {@value #IN_FLIGHT} / пропускная способность секунд; сравнивать режимы
+ * нужно по req/s. Запускается профилем {@code load}.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+    private static final int USERS = 100;
+    private static final int ITEMS = 500;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int IN_FLIGHT = 400;
+    private static final int WARMUP = 500;
+    private static final int REQUESTS = 3_000;
+
+    @Test
+    void burst_ShouldBeServedWithoutErrorsInBothModes() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        System.out.printf("%-10s %10s %10s %10s %8s%n", "mode", "req/s", "p50, ms", "p99, ms", "errors");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %10.0f %10.1f %10.1f %8d%n", result.mode(), result.throughput(),
+                    result.p50Ms(), result.p99Ms(), result.errors());
+        }
+
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--server.tomcat.threads.max=50",
+                "--spring.datasource.hikari.maximum-pool-size=10",
+                "--logging.level.org.springframework.transaction.interceptor=INFO",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"));
+        if (virtualThreads) {
+            args.add("--spring.threads.virtual.enabled=true");
+            args.add("--shareit.jdbc.admission.enabled=true");
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .run(args.toArray(new String[0]))) {
+            assertEquals(virtualThreads, context.getBean(DataSource.class) instanceof ConnectionAdmissionDataSource);
+            long firstUser = seed(context.getBean(JdbcTemplate.class));
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            load(port, firstUser, WARMUP);
+            Result result = load(port, firstUser, REQUESTS).withMode(mode);
+
+            VirtualThreadPinningMonitor monitor = context.getBean(VirtualThreadPinningMonitor.class);
+            if (monitor.isEnabled()) {
+                System.out.println("Места закрепления виртуальных потоков: " + monitor.sites());
+            }
+            return result;
+        }
+    }
+
+    private long seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"User " + i, "load" + i + "@test.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+        Long firstUser = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{"Item " + i, "Description " + i, firstUser + i % USERS});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, true, ?)",
+                items);
+        Long firstItem = jdbcTemplate.queryForObject("SELECT MIN(id) FROM items", Long.class);
+
+        List<Object[]> bookings = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2029, 1, 1, 0, 0);
+        for (int item = 0; item < ITEMS; item++) {
+            for (int n = 0; n < BOOKINGS_PER_ITEM; n++) {
+                LocalDateTime start = base.plusDays(n * 30L);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(3)),
+                        firstItem + item, firstUser + (item + n + 1) % USERS, "APPROVED"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?)", bookings);
+        return firstUser;
+    }
+
+    private Result load(int port, long firstUser, int requests) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        List<HttpRequest> targets = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            targets.add(request(port, firstUser + user, "/bookings/owner?state=ALL&limit=50"));
+            targets.add(request(port, firstUser + user, "/items"));
+        }
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[requests];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int index = i;
+                long start = System.nanoTime();
+                futures[i] = client.sendAsync(targets.get(i % targets.size()), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            latencies[index] = System.nanoTime() - start;
+                            if (error != null || response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                            inFlight.release();
+                        });
+            }
+            CompletableFuture.allOf(futures).exceptionally(error -> null).join();
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        return new Result(null, requests / seconds, latencies[requests / 2] / 1e6,
+                latencies[requests * 99 / 100] / 1e6, errors.get());
+    }
+
+    private static HttpRequest request(int port, long owner, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("X-Sharer-User-Id", String.valueOf(owner))
+                .GET()
+                .build();
+    }
+
+    private record Result(String mode, double throughput, double p50Ms, double p99Ms, int errors) {
+        Result withMode(String mode) {
+            return new Result(mode, throughput, p50Ms, p99Ms, errors);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionsResultDto;
+import ru.practicum.shareit.booking.exceptions.BookingStatusException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookingDecisionStressTest {
+    private static final int THREADS = 8;
+    private static final int BOOKINGS = 40;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void decide_ConcurrentDecisions_ShouldProcessEachBookingOnce() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        User booker = userRepository.save(new User(null, "Booker", UUID.randomUUID() + "@test.com"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            ids.add(bookingRepository.save(new Booking(null, base.plusHours(i), base.plusHours(i).plusMinutes(30),
+                    item, booker, BookingStatus.WAITING)).getId());
+        }
+        Map<Long, AtomicInteger> decidedTimes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            boolean approve = t % 2 == 0;
+            boolean single = t % 3 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (single) {
+                    for (Long id : ids) {
+                        try {
+                            bookingService.approve(id, owner.getId(), approve);
+                            decidedTimes.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                        } catch (BookingStatusException ignored) {
+                            // обработано другим потоком
+                        }
+                    }
+                } else {
+                    BookingDecisionsResultDto result = bookingService.decide(ids.stream()
+                            .map(id -> new BookingDecisionDto(id, approve))
+                            .toList(), new SharerPrincipal(owner.getId(), owner.getName(), owner.getEmail()));
+                    result.getApproved().forEach(id -> decidedTimes.computeIfAbsent(id, key -> new AtomicInteger())
+                            .incrementAndGet());
+                    result.getRejected().forEach(id -> decidedTimes.computeIfAbsent(id, key -> new AtomicInteger())
+                            .incrementAndGet());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (Long id : ids) {
+            assertEquals(1, decidedTimes.get(id).get(), "Бронирование " + id + " обработано не один раз");
+            assertNotEquals(BookingStatus.WAITING, bookingRepository.findById(id).orElseThrow().getStatus());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.exceptions.BookingOverlapException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookingOverlapStressTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void create_ConcurrentOverlappingRequests_ShouldNeverDoubleBook() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(new User(null, "Booker " + i, UUID.randomUUID() + "@test.com")));
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (User booker : bookers) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    long offset = ThreadLocalRandom.current().nextLong(0, 200);
+                    long length = ThreadLocalRandom.current().nextLong(1, 10);
+                    BookingCreateDto dto = new BookingCreateDto(item.getId(),
+                            base.plusHours(offset), base.plusHours(offset + length));
+                    try {
+                        bookingService.create(dto, new SharerPrincipal(booker.getId(), booker.getName(), booker.getEmail()));
+                        created.incrementAndGet();
+                    } catch (BookingOverlapException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Booking> bookings = bookingRepository.findAllWithBookerByItemIdAndStatus(item.getId(), BookingStatus.WAITING)
+                .stream()
+                .sorted(Comparator.comparing(Booking::getStart))
+                .toList();
+        assertEquals(created.get(), bookings.size());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, created.get() + rejected.get());
+        assertTrue(rejected.get() > 0);
+        for (int i = 1; i < bookings.size(); i++) {
+            assertFalse(bookings.get(i).getStart().isBefore(bookings.get(i - 1).getEnd()),
+                    "Бронирования " + bookings.get(i - 1).getId() + " и " + bookings.get(i).getId() + " пересекаются");
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BookingRepositoryTest {
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(new User(null, "Owner", "owner@test.com"));
+        booker = em.persist(new User(null, "Booker", "booker@test.com"));
+        item = em.persist(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+    }
+
+    private Booking booking(Item target, long startOffsetHours, long endOffsetHours, BookingStatus status) {
+        return em.persist(new Booking(null, now.plusHours(startOffsetHours), now.plusHours(endOffsetHours),
+                target, booker, status));
+    }
+
+    @Test
+    void findLastAndNextApprovedByItemIds_ShouldReturnOneOfEachPerItem() {
+        Item other = em.persist(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        booking(item, -10, -9, BookingStatus.APPROVED);
+        Booking last = booking(item, -5, -4, BookingStatus.APPROVED);
+        booking(item, -3, -2, BookingStatus.REJECTED);
+        booking(item, -1, 1, BookingStatus.APPROVED);
+        Booking next = booking(item, 2, 3, BookingStatus.APPROVED);
+        booking(item, 4, 5, BookingStatus.APPROVED);
+        Booking otherNext = booking(other, 6, 7, BookingStatus.APPROVED);
+        em.flush();
+
+        List<ItemBookingView> views = bookingRepository.findLastAndNextApprovedByItemIds(
+                List.of(item.getId(), other.getId()), now);
+
+        assertEquals(3, views.size());
+        Map<String, ItemBookingView> forItem = views.stream()
+                .filter(view -> view.getItemId().equals(item.getId()))
+                .collect(Collectors.toMap(ItemBookingView::getKind, view -> view));
+        assertEquals(last.getId(), forItem.get(ItemBookingView.LAST).getId());
+        assertEquals(next.getId(), forItem.get(ItemBookingView.NEXT).getId());
+        assertEquals(next.getStart().withNano(0), forItem.get(ItemBookingView.NEXT).getStart().withNano(0));
+        assertEquals("Booker", forItem.get(ItemBookingView.NEXT).getBookerName());
+        assertEquals("APPROVED", forItem.get(ItemBookingView.NEXT).getStatus());
+        ItemBookingView otherView = views.stream()
+                .filter(view -> view.getItemId().equals(other.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(otherNext.getId(), otherView.getId());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private void persistBookingsForManyItemsAndBookers(int count) {
+        for (int i = 0; i < count; i++) {
+            User otherBooker = em.persist(new User(null, "Booker " + i, "booker" + i + "@test.com"));
+            Item otherItem = em.persist(new Item(null, "Item " + i, "Description " + i, true, owner, null));
+            em.persist(new Booking(null, now.plusHours(i), now.plusHours(i + 1), otherItem, otherBooker,
+                    BookingStatus.WAITING));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findPageByOwner_ShouldLoadPageInSingleStatement() {
+        persistBookingsForManyItemsAndBookers(10);
+        Statistics statistics = statistics();
+
+        List<BookingDto> dtos = bookingRepository.findPageByOwner(owner.getId(),
+                        BookingCursor.first().start(), BookingCursor.first().id(), PageRequest.of(0, 20)).stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+
+        assertEquals(10, dtos.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findPageByBooker_ShouldLoadPageInSingleStatement() {
+        for (int i = 0; i < 10; i++) {
+            Item otherItem = em.persist(new Item(null, "Item " + i, "Description " + i, true, owner, null));
+            booking(otherItem, i, i + 1, BookingStatus.WAITING);
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = statistics();
+
+        List<BookingDto> dtos = bookingRepository.findPageByBooker(booker.getId(),
+                        BookingCursor.first().start(), BookingCursor.first().id(), PageRequest.of(0, 20))
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+
+        assertEquals(10, dtos.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_ShouldFetchItemAndBooker() {
+        Booking saved = booking(item, 1, 2, BookingStatus.WAITING);
+        em.flush();
+        em.clear();
+        Statistics statistics = statistics();
+
+        Booking found = bookingRepository.findById(saved.getId()).orElseThrow();
+        BookingMapper.toBookingDto(found);
+        assertEquals(owner.getId(), found.getItem().getOwner().getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findPageByBooker_ShouldSeekPastCursorInStartAndIdOrder() {
+        Booking first = booking(item, 1, 2, BookingStatus.WAITING);
+        Booking sameStart = booking(item, 1, 3, BookingStatus.WAITING);
+        Booking older = booking(item, -5, -4, BookingStatus.WAITING);
+        em.flush();
+        em.clear();
+
+        List<Booking> page = bookingRepository.findPageByBooker(booker.getId(),
+                BookingCursor.first().start(), BookingCursor.first().id(), PageRequest.of(0, 2));
+        assertEquals(List.of(sameStart.getId(), first.getId()), page.stream().map(Booking::getId).toList());
+
+        BookingCursor cursor = BookingCursor.after(page.get(1));
+        List<Booking> next = bookingRepository.findPageByBooker(booker.getId(),
+                cursor.start(), cursor.id(), PageRequest.of(0, 2));
+        assertEquals(List.of(older.getId()), next.stream().map(Booking::getId).toList());
+    }
+
+    @Test
+    void findBusyIntervals_ShouldReturnActiveBookingsInRangeOrderedByStart() {
+        Booking later = booking(item, 5, 6, BookingStatus.APPROVED);
+        Booking earlier = booking(item, 1, 2, BookingStatus.WAITING);
+        booking(item, 3, 4, BookingStatus.REJECTED);
+        booking(item, 30, 31, BookingStatus.APPROVED);
+        em.flush();
+
+        List<BookingInterval> busy = bookingRepository.findBusyIntervals(item.getId(),
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now, now.plusHours(10));
+
+        assertEquals(2, busy.size());
+        assertEquals(earlier.getStart().withNano(0), busy.get(0).getStart().withNano(0));
+        assertEquals(later.getEnd().withNano(0), busy.get(1).getEnd().withNano(0));
+    }
+
+    @Test
+    void saveAll_ShouldBatchInsertsAndPoolSequenceValues() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bookings.add(new Booking(null, now.plusDays(i), now.plusDays(i).plusHours(1), item, booker,
+                    BookingStatus.WAITING));
+        }
+        Statistics statistics = statistics();
+
+        bookingRepository.saveAll(bookings);
+        em.flush();
+
+        assertTrue(bookings.stream().allMatch(saved -> saved.getId() != null));
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findBusyIntervalsByItemIds_ShouldReturnActiveIntervalsOfRequestedItems() {
+        Item other = em.persist(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        Item ignored = em.persist(new Item(null, "Молоток", "Тяжёлый", true, owner, null));
+        booking(item, 1, 2, BookingStatus.APPROVED);
+        booking(item, 3, 4, BookingStatus.REJECTED);
+        booking(other, 2, 3, BookingStatus.WAITING);
+        booking(other, 50, 51, BookingStatus.WAITING);
+        booking(ignored, 1, 2, BookingStatus.APPROVED);
+        em.flush();
+
+        List<ItemBookingInterval> intervals = bookingRepository.findBusyIntervalsByItemIds(
+                List.of(item.getId(), other.getId()), List.of(BookingStatus.APPROVED, BookingStatus.WAITING),
+                now, now.plusHours(10));
+
+        assertEquals(Set.of(item.getId(), other.getId()),
+                intervals.stream().map(ItemBookingInterval::getItemId).collect(Collectors.toSet()));
+        assertEquals(2, intervals.size());
+    }
+}
@@ -2,15 +2,28 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionsResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.ItemBookingInterval;
 import ru.practicum.shareit.booking.exceptions.*;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
+import ru.practicum.shareit.common.InvalidCursorException;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.sse.SseHub;
+import ru.practicum.shareit.common.sse.SseTopic;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.UserService;
-import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -23,10 +36,14 @@ class BookingServiceImplTest {
     private BookingService bookingService;
     private BookingRepository bookingRepository;
     private ItemService itemService;
-    private UserService userService;
+    private BookingTimelineIndex bookingTimelineIndex;
+    private ItemAvailabilityService itemAvailabilityService;
+    private SseHub sseHub;
 
     private User owner;
     private User booker;
+    private SharerPrincipal ownerPrincipal;
+    private SharerPrincipal bookerPrincipal;
     private Item item;
     private Booking booking;
     private BookingCreateDto bookingCreateDto;
@@ -35,11 +52,16 @@ class BookingServiceImplTest {
     void setUp() {
         bookingRepository = mock(BookingRepository.class);
         itemService = mock(ItemService.class);
-        userService = mock(UserService.class);
-        bookingService = new BookingServiceImpl(itemService, userService, bookingRepository);
+        bookingTimelineIndex = mock(BookingTimelineIndex.class);
+        itemAvailabilityService = mock(ItemAvailabilityService.class);
+        sseHub = mock(SseHub.class);
+        bookingService = new BookingServiceImpl(itemService, bookingRepository, bookingTimelineIndex,
+                new BookingItemLocks(true), itemAvailabilityService, sseHub);
 
         owner = new User(1L, "Owner", "owner@test.com");
         booker = new User(2L, "Booker", "booker@test.com");
+        ownerPrincipal = new SharerPrincipal(1L, "Owner", "owner@test.com");
+        bookerPrincipal = new SharerPrincipal(2L, "Booker", "booker@test.com");
         item = new Item(1L, "Test Item", "Description", true, owner, null);
         booking = new Booking(1L, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2),
                 item, booker, BookingStatus.WAITING);
@@ -48,11 +70,10 @@ class BookingServiceImplTest {
 
     @Test
     void create_ValidBooking_ShouldCreateBooking() {
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
         when(itemService.findById(1L)).thenReturn(item);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
-        BookingDto result = bookingService.create(bookingCreateDto, 2L);
+        BookingDto result = bookingService.create(bookingCreateDto, bookerPrincipal);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
@@ -60,34 +81,199 @@ class BookingServiceImplTest {
         verify(bookingRepository).save(any(Booking.class));
     }
 
+    @Test
+    void create_OverlappingBooking_ShouldThrowException() {
+        when(itemService.findById(1L)).thenReturn(item);
+        when(bookingRepository.existsOverlapping(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyCollection()))
+                .thenReturn(true);
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.create(bookingCreateDto, bookerPrincipal));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void create_WithoutItemLocks_ShouldInsertWithoutPreCheckAndMapConstraintToOverlap() {
+        BookingService constrained = new BookingServiceImpl(itemService, bookingRepository, bookingTimelineIndex,
+                new BookingItemLocks(false), itemAvailabilityService, sseHub);
+        when(itemService.findById(1L)).thenReturn(item);
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new DataIntegrityViolationException(
+                "ERROR: conflicting key value violates exclusion constraint \"bookings_no_overlap\""));
+
+        assertThrows(BookingOverlapException.class, () -> constrained.create(bookingCreateDto, bookerPrincipal));
+        verify(bookingRepository, never()).existsOverlapping(any(), any(), any(), anyCollection());
+    }
+
     @Test
     void create_BookingOwnItem_ShouldThrowException() {
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
         when(itemService.findById(1L)).thenReturn(item);
 
-        assertThrows(BookingAccessDeniedException.class, () -> bookingService.create(bookingCreateDto, 1L));
+        assertThrows(BookingAccessDeniedException.class, () -> bookingService.create(bookingCreateDto, ownerPrincipal));
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void create_UnavailableItem_ShouldThrowException() {
         Item unavailableItem = new Item(1L, "Test Item", "Description", false, owner, null);
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
         when(itemService.findById(1L)).thenReturn(unavailableItem);
 
-        assertThrows(ItemUnavailableException.class, () -> bookingService.create(bookingCreateDto, 2L));
+        assertThrows(ItemUnavailableException.class, () -> bookingService.create(bookingCreateDto, bookerPrincipal));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBatch_ShouldReportPerElementResults() {
+        Item otherItem = new Item(2L, "Other Item", "Description", true, owner, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingCreateDto> dtos = List.of(
+                new BookingCreateDto(1L, start, start.plusHours(2)),
+                new BookingCreateDto(1L, start.plusHours(1), start.plusHours(3)),
+                new BookingCreateDto(2L, start, start.plusHours(1)),
+                new BookingCreateDto(3L, start, start.plusHours(1)),
+                new BookingCreateDto(1L, start.plusHours(5), start.plusHours(4)));
+        when(itemService.findAllByIds(anyCollection())).thenReturn(List.of(item, otherItem));
+        when(bookingRepository.findBusyIntervalsByItemIds(anyCollection(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+
+        List<BookingBatchResultDto> results = bookingService.createBatch(dtos, bookerPrincipal);
+
+        assertEquals(List.of(201, 409, 201, 404, 400),
+                results.stream().map(BookingBatchResultDto::getStatus).toList());
+        // под блокировками проверка и вставка идут отдельно для каждой вещи
+        verify(bookingRepository, times(2)).findBusyIntervalsByItemIds(anyCollection(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookingRepository, times(2)).saveAll(argThat(bookings -> bookings.spliterator().getExactSizeIfKnown() == 1));
         verify(bookingRepository, never()).save(any(Booking.class));
+        verify(itemAvailabilityService).evict(1L);
+        verify(itemAvailabilityService).evict(2L);
+    }
+
+    @Test
+    void createBatch_WithoutItemLocks_ShouldCheckAndInsertOnce() {
+        BookingService constrained = new BookingServiceImpl(itemService, bookingRepository, bookingTimelineIndex,
+                new BookingItemLocks(false), itemAvailabilityService, sseHub);
+        Item otherItem = new Item(2L, "Other Item", "Description", true, owner, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        when(itemService.findAllByIds(anyCollection())).thenReturn(List.of(item, otherItem));
+        when(bookingRepository.findBusyIntervalsByItemIds(anyCollection(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+
+        List<BookingBatchResultDto> results = constrained.createBatch(List.of(
+                new BookingCreateDto(1L, start, start.plusHours(1)),
+                new BookingCreateDto(2L, start, start.plusHours(1))), bookerPrincipal);
+
+        assertEquals(List.of(201, 201), results.stream().map(BookingBatchResultDto::getStatus).toList());
+        verify(bookingRepository, times(1)).findBusyIntervalsByItemIds(anyCollection(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookingRepository).saveAll(argThat(bookings -> bookings.spliterator().getExactSizeIfKnown() == 2));
+    }
+
+    @Test
+    void createBatch_MissingItemId_ShouldRejectOnlyThatElement() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        when(itemService.findAllByIds(anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.findBusyIntervalsByItemIds(anyCollection(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+
+        List<BookingBatchResultDto> results = bookingService.createBatch(java.util.Arrays.asList(
+                new BookingCreateDto(null, start, start.plusHours(1)),
+                null,
+                new BookingCreateDto(1L, start, start.plusHours(1))), bookerPrincipal);
+
+        assertEquals(List.of(400, 400, 201), results.stream().map(BookingBatchResultDto::getStatus).toList());
+        verify(itemService).findAllByIds(java.util.Set.of(1L));
+    }
+
+    @Test
+    void createBatch_OverlapWithExistingBooking_ShouldRejectElement() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ItemBookingInterval busy = mock(ItemBookingInterval.class);
+        when(busy.getItemId()).thenReturn(1L);
+        when(busy.getStart()).thenReturn(start.minusHours(1));
+        when(busy.getEnd()).thenReturn(start.plusHours(1));
+        when(itemService.findAllByIds(anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.findBusyIntervalsByItemIds(anyCollection(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of(busy));
+
+        List<BookingBatchResultDto> results = bookingService.createBatch(
+                List.of(new BookingCreateDto(1L, start, start.plusHours(2))), bookerPrincipal);
+
+        assertEquals(409, results.get(0).getStatus());
+        assertNull(results.get(0).getBooking());
+    }
+
+    @Test
+    void createBatch_OwnItem_ShouldRejectWithoutQueryingBookings() {
+        when(itemService.findAllByIds(anyCollection())).thenReturn(List.of(item));
+
+        List<BookingBatchResultDto> results = bookingService.createBatch(List.of(bookingCreateDto), ownerPrincipal);
+
+        assertEquals(403, results.get(0).getStatus());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void approve_ValidBooking_ShouldApproveBooking() {
+        when(bookingRepository.updateStatusIfOwnedAndInStatus(List.of(1L), 1L, BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(1);
+        booking.setStatus(BookingStatus.APPROVED);
         when(bookingRepository.findById(1L)).thenReturn(java.util.Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         BookingDto result = bookingService.approve(1L, 1L, true);
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingTimelineIndex).onSaved(booking);
+        verify(itemAvailabilityService).evict(item.getId());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(sseHub).sendTo(SseTopic.BOOKINGS, booker.getId(), BookingServiceImpl.BOOKING_EVENT, 1L, result);
+    }
+
+    @Test
+    void approve_InTransaction_ShouldUpdateCachesOnlyAfterCommit() {
+        when(bookingRepository.updateStatusIfOwnedAndInStatus(List.of(1L), 1L, BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(1);
+        booking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.findById(1L)).thenReturn(java.util.Optional.of(booking));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.approve(1L, 1L, true);
+            verifyNoInteractions(bookingTimelineIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookingTimelineIndex).onSaved(booking);
+            verify(itemAvailabilityService, times(2)).evict(item.getId());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void approve_RolledBack_ShouldNotTouchTimeline() {
+        when(bookingRepository.updateStatusIfOwnedAndInStatus(List.of(1L), 1L, BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findById(1L)).thenReturn(java.util.Optional.of(booking));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.approve(1L, 1L, true);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(bookingTimelineIndex);
+    }
+
+    @Test
+    void decide_UpdatedFewerRowsThanLocked_ShouldThrowConflict() {
+        when(bookingRepository.lockByIdsAndStatusAndOwner(anyCollection(), eq(BookingStatus.WAITING), eq(1L)))
+                .thenReturn(List.of(booking));
+        when(bookingRepository.updateStatusIfOwnedAndInStatus(List.of(1L), 1L, BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(0);
+
+        assertThrows(BookingConcurrentUpdateException.class,
+                () -> bookingService.decide(List.of(new BookingDecisionDto(1L, true)), ownerPrincipal));
+        verifyNoInteractions(bookingTimelineIndex, sseHub);
     }
 
     @Test
@@ -96,6 +282,36 @@ class BookingServiceImplTest {
 
         assertThrows(BookingAccessDeniedException.class, () -> bookingService.approve(1L, 2L, true));
         verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(bookingTimelineIndex, sseHub);
+    }
+
+    @Test
+    void decide_ShouldApplyEachDecisionGroupWithOneUpdate() {
+        Booking second = new Booking(2L, booking.getStart().plusDays(1), booking.getEnd().plusDays(1),
+                item, booker, BookingStatus.WAITING);
+        Booking third = new Booking(3L, booking.getStart().plusDays(2), booking.getEnd().plusDays(2),
+                item, booker, BookingStatus.WAITING);
+        when(bookingRepository.lockByIdsAndStatusAndOwner(anyCollection(), eq(BookingStatus.WAITING), eq(1L)))
+                .thenReturn(List.of(booking, second, third));
+        when(bookingRepository.updateStatusIfOwnedAndInStatus(List.of(1L, 3L), 1L, BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(2);
+        when(bookingRepository.updateStatusIfOwnedAndInStatus(List.of(2L), 1L, BookingStatus.WAITING,
+                BookingStatus.REJECTED)).thenReturn(1);
+        when(bookingRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(booking, second, third));
+
+        BookingDecisionsResultDto result = bookingService.decide(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, true),
+                new BookingDecisionDto(4L, true)), ownerPrincipal);
+
+        assertEquals(List.of(1L, 3L), result.getApproved());
+        assertEquals(List.of(2L), result.getRejected());
+        assertEquals(List.of(4L), result.getSkipped());
+        verify(bookingTimelineIndex, times(3)).onSaved(any(Booking.class));
+        verify(sseHub, times(3)).sendTo(eq(SseTopic.BOOKINGS), eq(booker.getId()),
+                eq(BookingServiceImpl.BOOKING_EVENT), any(), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
@@ -121,7 +337,6 @@ class BookingServiceImplTest {
     void findById_NonParticipantAccess_ShouldThrowException() {
         User otherUser = new User(3L, "Other", "other@test.com");
         when(bookingRepository.findById(1L)).thenReturn(java.util.Optional.of(booking));
-        when(userService.findById(3L)).thenReturn(new UserDto(3L, "Other", "other@test.com"));
 
         assertThrows(BookingAccessDeniedException.class, () -> bookingService.findById(1L, 3L));
     }
@@ -129,10 +344,10 @@ class BookingServiceImplTest {
     @Test
     void findAllByBooker_ShouldReturnBookings() {
         List<Booking> bookings = List.of(booking);
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
-        when(bookingRepository.findByBookerIdOrderByStartDesc(eq(2L), any())).thenReturn(bookings);
+        when(bookingRepository.findPageByBooker(eq(2L), any(LocalDateTime.class), anyLong(), any()))
+                .thenReturn(bookings);
 
-        List<BookingDto> result = bookingService.findAllByBooker(2L, BookingStatus.ALL);
+        List<BookingDto> result = bookingService.findAllByBooker(bookerPrincipal, BookingStatus.ALL, null, 10).getBookings();
 
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getId());
@@ -141,10 +356,10 @@ class BookingServiceImplTest {
     @Test
     void findAllByOwner_ShouldReturnBookings() {
         List<Booking> bookings = List.of(booking);
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
-        when(bookingRepository.findByItemOwnerId(eq(1L), any())).thenReturn(bookings);
+        when(bookingRepository.findPageByOwner(eq(1L), any(LocalDateTime.class), anyLong(), any()))
+                .thenReturn(bookings);
 
-        List<BookingDto> result = bookingService.findAllByOwner(1L, BookingStatus.ALL);
+        List<BookingDto> result = bookingService.findAllByOwner(ownerPrincipal, BookingStatus.ALL, null, 10).getBookings();
 
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getId());
@@ -161,22 +376,55 @@ class BookingServiceImplTest {
                 BookingStatus.APPROVED);
 
         List<Booking> currentBookings = List.of(currentBooking);
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
-        when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
+        when(bookingRepository.findCurrentPageByBooker(
                 eq(2L),
                 any(LocalDateTime.class),
                 any(LocalDateTime.class),
+                anyLong(),
                 any()))
                 .thenReturn(currentBookings);
 
-        List<BookingDto> result = bookingService.findAllByBooker(2L, BookingStatus.CURRENT);
+        List<BookingDto> result = bookingService.findAllByBooker(bookerPrincipal, BookingStatus.CURRENT, null, 10).getBookings();
 
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getId());
-        verify(bookingRepository).findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
+        verify(bookingRepository).findCurrentPageByBooker(
                 eq(2L),
                 any(LocalDateTime.class),
                 any(LocalDateTime.class),
+                anyLong(),
                 any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByOwner_MoreThanLimit_ShouldReturnNextCursor() {
+        Booking older = new Booking(2L, booking.getStart().minusDays(1), booking.getEnd().minusDays(1),
+                item, booker, BookingStatus.WAITING);
+        when(bookingRepository.findPageByOwner(eq(1L), any(LocalDateTime.class), anyLong(), any()))
+                .thenReturn(List.of(booking, older));
+
+        BookingPage page = bookingService.findAllByOwner(ownerPrincipal, BookingStatus.ALL, null, 1);
+
+        assertEquals(1, page.getBookings().size());
+        assertEquals(new BookingCursor(booking.getStart(), booking.getId()), BookingCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void findAllByBooker_WithCursor_ShouldSeekFromCursor() {
+        BookingCursor cursor = new BookingCursor(booking.getStart(), booking.getId());
+        when(bookingRepository.findPageByBooker(eq(2L), eq(cursor.start()), eq(cursor.id()), any()))
+                .thenReturn(List.of());
+
+        BookingPage page = bookingService.findAllByBooker(bookerPrincipal, BookingStatus.ALL, cursor.encode(), 10);
+
+        assertTrue(page.getBookings().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findAllByBooker_MalformedCursor_ShouldThrowException() {
+
+        assertThrows(InvalidCursorException.class,
+                () -> bookingService.findAllByBooker(bookerPrincipal, BookingStatus.ALL, "not-a-cursor", 10));
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.availability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ItemAvailabilityServiceTest {
+    private final LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private final LocalDateTime to = from.plusDays(10);
+    private BookingRepository bookingRepository;
+    private ItemAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        service = new ItemAvailabilityService(bookingRepository, 100, new SimpleMeterRegistry());
+    }
+
+    private BookingInterval interval(int startDay, int endDay) {
+        LocalDateTime start = from.plusDays(startDay);
+        LocalDateTime end = from.plusDays(endDay);
+        return new BookingInterval() {
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+
+    @Test
+    void merge_OverlappingAndEdgeIntervals_ShouldReturnGaps() {
+        List<AvailabilityIntervalDto> free = ItemAvailabilityService.merge(List.of(
+                interval(-2, 1),
+                interval(3, 5),
+                interval(4, 6),
+                interval(6, 7),
+                interval(9, 12)), from, to);
+
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(from.plusDays(1), from.plusDays(3)),
+                new AvailabilityIntervalDto(from.plusDays(7), from.plusDays(9))), free);
+    }
+
+    @Test
+    void merge_NoBookings_ShouldReturnWholeRange() {
+        assertEquals(List.of(new AvailabilityIntervalDto(from, to)), ItemAvailabilityService.merge(List.of(), from, to));
+    }
+
+    @Test
+    void findFreeIntervals_CoveredRange_ShouldUseCache() {
+        List<BookingInterval> busy = List.of(interval(3, 5));
+        when(bookingRepository.findBusyIntervals(eq(1L), anyCollection(), eq(from), eq(to))).thenReturn(busy);
+
+        service.findFreeIntervals(1L, from, to);
+        List<AvailabilityIntervalDto> free = service.findFreeIntervals(1L, from.plusDays(1), from.plusDays(4));
+
+        assertEquals(List.of(new AvailabilityIntervalDto(from.plusDays(1), from.plusDays(3))), free);
+        verify(bookingRepository, times(1)).findBusyIntervals(anyLong(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void findFreeIntervals_MovingDefaultWindow_ShouldLoadWholeDaysOnce() {
+        LocalDateTime now = from.plusHours(9).plusMinutes(30);
+        when(bookingRepository.findBusyIntervals(eq(1L), anyCollection(), eq(from), eq(from.plusDays(31))))
+                .thenReturn(List.of(interval(3, 5)));
+
+        service.findFreeIntervals(1L, now, now.plusDays(30));
+        List<AvailabilityIntervalDto> free = service.findFreeIntervals(1L, now.plusSeconds(5), now.plusDays(30).plusSeconds(5));
+
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(now.plusSeconds(5), from.plusDays(3)),
+                new AvailabilityIntervalDto(from.plusDays(5), now.plusDays(30).plusSeconds(5))), free);
+        verify(bookingRepository, times(1)).findBusyIntervals(anyLong(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        when(bookingRepository.findBusyIntervals(eq(1L), anyCollection(), eq(from), eq(to))).thenReturn(List.of());
+
+        service.findFreeIntervals(1L, from, to);
+        service.evict(1L);
+        service.findFreeIntervals(1L, from, to);
+
+        verify(bookingRepository, times(2)).findBusyIntervals(anyLong(), anyCollection(), any(), any());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingExportServiceTest {
+    @Autowired
+    private BookingExportService bookingExportService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User persistOwnerWithBookings(int count) {
+        User owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        User booker = userRepository.save(new User(null, "Booker", UUID.randomUUID() + "@test.com"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bookings.add(new Booking(null, base.plusHours(i), base.plusHours(i).plusMinutes(30), item, booker,
+                    BookingStatus.APPROVED));
+        }
+        bookingRepository.saveAll(bookings);
+        return owner;
+    }
+
+    @Test
+    void exportByOwner_ShouldWriteOneJsonLinePerBookingNewestFirst() throws Exception {
+        User owner = persistOwnerWithBookings(1_234);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = bookingExportService.exportByOwner(owner.getId(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1_234, written);
+        assertEquals(1_234, lines.length);
+        LocalDateTime previous = null;
+        for (String line : lines) {
+            JsonNode dto = objectMapper.readTree(line);
+            assertEquals("Booker", dto.get("booker").get("name").asText());
+            LocalDateTime start = LocalDateTime.parse(dto.get("start").asText());
+            if (previous != null) {
+                assertTrue(start.isBefore(previous));
+            }
+            previous = start;
+        }
+    }
+
+    @Test
+    void exportEndpoint_ShouldStreamNdjson() throws Exception {
+        User owner = persistOwnerWithBookings(3);
+
+        MvcResult started = mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(3, body.lines().count());
+    }
+
+    @Test
+    void exportEndpoint_UnknownUser_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking.timeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.event.UserUpdatedEvent;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingTimelineIndexTest {
+    private final LocalDateTime now = LocalDateTime.of(2024, 1, 10, 12, 0);
+    private BookingRepository bookingRepository;
+    private BookingTimelineIndex index;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        index = new BookingTimelineIndex(bookingRepository, true, 10, 100, new SimpleMeterRegistry());
+        booker = new User(2L, "Booker", "booker@test.com");
+        item = new Item(1L, "Дрель", "Простая дрель", true, new User(1L, "Owner", "owner@test.com"), null);
+    }
+
+    private Booking booking(Long id, Item target, long startHours, long endHours, BookingStatus status) {
+        return new Booking(id, now.plusHours(startHours), now.plusHours(endHours), target, booker, status);
+    }
+
+    @Test
+    void findLastAndNext_ShouldUseSortedTimeline() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenReturn(List.of(
+                booking(1L, item, -10, -8, BookingStatus.APPROVED),
+                booking(2L, item, -20, -5, BookingStatus.APPROVED),
+                booking(3L, item, -1, 1, BookingStatus.APPROVED),
+                booking(4L, item, 5, 6, BookingStatus.APPROVED),
+                booking(5L, item, 2, 3, BookingStatus.APPROVED)));
+
+        List<ItemBookingView> views = index.findLastAndNext(1L, now);
+
+        assertEquals(2, views.size());
+        assertEquals(ItemBookingView.LAST, views.get(0).getKind());
+        assertEquals(2L, views.get(0).getId());
+        assertEquals(ItemBookingView.NEXT, views.get(1).getKind());
+        assertEquals(5L, views.get(1).getId());
+        assertEquals("Booker", views.get(1).getBookerName());
+        verify(bookingRepository, times(1)).findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void onUserUpdated_ShouldRenameBookerInCachedTimeline() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED))
+                .thenReturn(List.of(booking(1L, item, 1, 2, BookingStatus.APPROVED)));
+        index.findLastAndNext(1L, now);
+
+        index.onUserUpdated(new UserUpdatedEvent(2L, "Renamed", "renamed@test.com"));
+        ItemBookingView next = index.findLastAndNext(1L, now).get(0);
+
+        assertEquals("Renamed", next.getBookerName());
+        assertEquals("renamed@test.com", next.getBookerEmail());
+        verify(bookingRepository, times(1)).findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void onUserUpdated_DuringLoad_ShouldNotCacheStaleName() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenAnswer(invocation -> {
+            index.onUserUpdated(new UserUpdatedEvent(2L, "Renamed", "renamed@test.com"));
+            return List.of(booking(1L, item, 1, 2, BookingStatus.APPROVED));
+        });
+
+        index.findLastAndNext(1L, now);
+
+        assertEquals(0, index.cachedItems());
+    }
+
+    @Test
+    void onUserDeleted_ShouldDropBookerBookings() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED))
+                .thenReturn(List.of(booking(1L, item, 1, 2, BookingStatus.APPROVED)));
+        index.findLastAndNext(1L, now);
+
+        index.onUserDeleted(new UserDeletedEvent(2L));
+
+        assertTrue(index.findLastAndNext(1L, now).isEmpty());
+        verify(bookingRepository, times(1)).findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void getOrLoad_SavedDuringLoad_ShouldNotCacheStaleTimeline() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenAnswer(invocation -> {
+            index.onSaved(booking(7L, item, 1, 2, BookingStatus.APPROVED));
+            return List.of();
+        });
+
+        assertTrue(index.findLastAndNext(1L, now).isEmpty());
+        assertEquals(0, index.cachedItems());
+    }
+
+    @Test
+    void onSaved_ShouldUpdateCachedTimeline() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenReturn(List.of());
+        assertTrue(index.findLastAndNext(1L, now).isEmpty());
+
+        index.onSaved(booking(7L, item, 1, 2, BookingStatus.APPROVED));
+        assertEquals(7L, index.findLastAndNext(1L, now).get(0).getId());
+
+        index.onSaved(booking(7L, item, 1, 2, BookingStatus.REJECTED));
+        assertTrue(index.findLastAndNext(1L, now).isEmpty());
+        verify(bookingRepository, times(1)).findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void put_OverBudget_ShouldKeepWeightWithinBudget() {
+        Item other = new Item(2L, "Пила", "Ручная пила", true, item.getOwner(), null);
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenReturn(List.of(
+                booking(1L, item, 1, 2, BookingStatus.APPROVED),
+                booking(2L, item, 3, 4, BookingStatus.APPROVED),
+                booking(3L, item, 5, 6, BookingStatus.APPROVED),
+                booking(4L, item, 7, 8, BookingStatus.APPROVED),
+                booking(5L, item, 9, 10, BookingStatus.APPROVED),
+                booking(6L, item, 11, 12, BookingStatus.APPROVED)));
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(2L, BookingStatus.APPROVED)).thenReturn(List.of(
+                booking(11L, other, 1, 2, BookingStatus.APPROVED),
+                booking(12L, other, 3, 4, BookingStatus.APPROVED),
+                booking(13L, other, 5, 6, BookingStatus.APPROVED),
+                booking(14L, other, 7, 8, BookingStatus.APPROVED),
+                booking(15L, other, 9, 10, BookingStatus.APPROVED)));
+
+        index.findLastAndNext(1L, now);
+        index.findLastAndNext(2L, now);
+
+        assertEquals(1, index.cachedItems());
+        assertTrue(index.cachedBookings() <= 10);
+    }
+
+    @Test
+    void verify_StaleTimeline_ShouldBeEvicted() {
+        when(bookingRepository.findAllWithBookerByItemIdAndStatus(1L, BookingStatus.APPROVED))
+                .thenReturn(List.of(booking(1L, item, 1, 2, BookingStatus.APPROVED)))
+                .thenReturn(List.of());
+
+        index.findLastAndNext(1L, now);
+
+        assertFalse(index.verify(1L));
+        assertEquals(0, index.cachedItems());
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentUserArgumentResolverTest {
+    private UserService userService;
+    private CurrentUserArgumentResolver resolver;
+    private MethodParameter parameter;
+    private MockHttpServletRequest request;
+    private NativeWebRequest webRequest;
+
+    @SuppressWarnings("unused")
+    private void handler(@CurrentUser SharerPrincipal user, Long userId) {
+    }
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        userService = mock(UserService.class);
+        resolver = new CurrentUserArgumentResolver(userService);
+        parameter = new MethodParameter(getClass().getDeclaredMethod("handler", SharerPrincipal.class, Long.class), 0);
+        request = new MockHttpServletRequest();
+        webRequest = new ServletWebRequest(request);
+    }
+
+    @Test
+    void supportsParameter_ShouldAcceptOnlyAnnotatedPrincipal() throws NoSuchMethodException {
+        MethodParameter plainId = new MethodParameter(
+                getClass().getDeclaredMethod("handler", SharerPrincipal.class, Long.class), 1);
+
+        assertTrue(resolver.supportsParameter(parameter));
+        assertFalse(resolver.supportsParameter(plainId));
+    }
+
+    @Test
+    void resolveArgument_SameRequest_ShouldLoadUserOnce() throws Exception {
+        request.addHeader(CurrentUserArgumentResolver.USER_ID_HEADER, "1");
+        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
+
+        SharerPrincipal first = resolver.resolveArgument(parameter, null, webRequest, null);
+        SharerPrincipal second = resolver.resolveArgument(parameter, null, webRequest, null);
+
+        assertEquals(new SharerPrincipal(1L, "Owner", "owner@test.com"), first);
+        assertSame(first, second);
+        verify(userService, times(1)).findById(1L);
+    }
+
+    @Test
+    void resolveArgument_MissingHeader_ShouldThrowException() {
+        assertThrows(MissingRequestHeaderException.class,
+                () -> resolver.resolveArgument(parameter, null, webRequest, null));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void resolveArgument_MalformedHeader_ShouldThrowException() {
+        request.addHeader(CurrentUserArgumentResolver.USER_ID_HEADER, "abc");
+
+        assertThrows(ServletRequestBindingException.class,
+                () -> resolver.resolveArgument(parameter, null, webRequest, null));
+    }
+
+    @Test
+    void resolveArgument_UnknownUser_ShouldThrowException() {
+        request.addHeader(CurrentUserArgumentResolver.USER_ID_HEADER, "99");
+        when(userService.findById(99L)).thenThrow(new UserNotFoundException("Пользователь не найден"));
+
+        assertThrows(UserNotFoundException.class, () -> resolver.resolveArgument(parameter, null, webRequest, null));
+    }
+}
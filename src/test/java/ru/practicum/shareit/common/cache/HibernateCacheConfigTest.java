@@ -0,0 +1,134 @@
+package ru.practicum.shareit.common.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.hibernate.statistics=true")
+class HibernateCacheConfigTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private User owner;
+    private SharerPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        principal = new SharerPrincipal(owner.getId(), owner.getName(), owner.getEmail());
+    }
+
+    @Test
+    void findById_SecondRead_ShouldComeFromCacheWithOwner() {
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        itemService.findById(item.getId());
+        statistics.clear();
+
+        Item cached = itemService.findById(item.getId());
+
+        assertEquals("Дрель", cached.getName());
+        assertEquals(owner.getId(), cached.getOwner().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(HibernateCacheConfig.ITEM_REGION).getHitCount());
+    }
+
+    @Test
+    void update_ShouldEvictCachedItem() {
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        itemService.findById(item.getId());
+
+        itemService.update(new Item(null, "Перфоратор", null, false, null, null), item.getId(), principal);
+
+        Item updated = itemService.findById(item.getId());
+        assertEquals("Перфоратор", updated.getName());
+        assertFalse(updated.getAvailable());
+    }
+
+    @Test
+    void delete_ShouldEvictCachedItem() {
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        Long itemId = item.getId();
+
+        itemService.delete(itemService.findById(itemId));
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.findById(itemId));
+    }
+
+    @Test
+    void findAllByUser_ShouldUseQueryCacheUntilItemsChange() {
+        itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        assertEquals(1, itemService.findAllByUser(owner.getId()).size());
+        statistics.clear();
+
+        assertEquals(1, itemService.findAllByUser(owner.getId()).size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        itemRepository.save(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        assertEquals(2, itemService.findAllByUser(owner.getId()).size());
+    }
+
+    @Test
+    void userServiceFindById_SecondRead_ShouldComeFromUserRegion() {
+        userService.findById(owner.getId());
+        statistics.clear();
+
+        assertEquals("Owner", userService.findById(owner.getId()).getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(HibernateCacheConfig.USER_REGION).getHitCount());
+    }
+
+    @Test
+    void userUpdateAndDelete_ShouldEvictCachedUser() {
+        userRepository.findById(owner.getId());
+
+        userService.update(owner.getId(), new UserUpdateDto("Renamed", null));
+        assertEquals("Renamed", userRepository.findById(owner.getId()).orElseThrow().getName());
+
+        userService.delete(owner.getId());
+        assertTrue(userRepository.findById(owner.getId()).isEmpty());
+    }
+
+    @Test
+    void statistics_ShouldBeExposedAsMetrics() {
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        itemService.findById(item.getId());
+        itemService.findById(item.getId());
+
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", HibernateCacheConfig.ITEM_REGION)
+                .tag("result", "hit")
+                .functionCounter().count() >= 1);
+        assertNotNull(meterRegistry.get("hibernate.cache.query.requests").tag("result", "hit").functionCounter());
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.common.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Метрики регионов без статистики Hibernate: в конфигурации по умолчанию она выключена.
+ */
+@SpringBootTest
+class HibernateCacheMetricsTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void regions_ShouldBeExposedAsCacheMetrics() {
+        User owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        double hits = hits(HibernateCacheConfig.ITEM_REGION);
+
+        itemService.findById(item.getId());
+        itemService.findById(item.getId());
+
+        assertTrue(hits(HibernateCacheConfig.ITEM_REGION) > hits);
+        assertNotNull(meterRegistry.get("cache.gets").tag("cache", HibernateCacheConfig.USER_REGION)
+                .tag("result", "miss").functionCounter());
+        assertNotNull(meterRegistry.get("cache.gets").tag("cache", RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)
+                .tag("result", "hit").functionCounter());
+        assertTrue(meterRegistry.find("hibernate.second.level.cache.requests").meters().isEmpty());
+    }
+
+    private double hits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.common.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionAdmissionDataSourceTest {
+    private DataSource target;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void getConnection_PoolExhausted_ShouldTimeOutAndReleaseOnClose() throws SQLException {
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(target, "test", 1, 10, 50, meterRegistry);
+        Connection first = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1.0, meterRegistry.counter("shareit.jdbc.admission.rejected", "pool", "test", "reason", "timeout").count());
+
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+        assertEquals(1, dataSource.inUse());
+        second.close();
+        assertEquals(0, dataSource.inUse());
+    }
+
+    @Test
+    void getConnection_TooManyWaiting_ShouldRejectImmediately() throws Exception {
+        ConnectionAdmissionDataSource dataSource =
+                new ConnectionAdmissionDataSource(target, "test", 1, 1, 5_000, meterRegistry);
+        Connection held = dataSource.getConnection();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<Connection> waiter = executor.submit(() -> {
+                started.countDown();
+                return dataSource.getConnection();
+            });
+            started.await();
+            while (dataSource.waiting() == 0) {
+                Thread.onSpinWait();
+            }
+
+            long start = System.nanoTime();
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+            assertEquals(1.0, meterRegistry.counter("shareit.jdbc.admission.rejected", "pool", "test", "reason", "queue_full").count());
+
+            held.close();
+            waiter.get(5, TimeUnit.SECONDS).close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getConnection_TargetFailure_ShouldReturnPermit() throws SQLException {
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(target, "test", 1, 10, 50, meterRegistry);
+        when(target.getConnection()).thenThrow(new SQLException("down")).thenAnswer(invocation -> mock(Connection.class));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertNotNull(dataSource.getConnection());
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.common.jdbc;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.common.CurrentUserArgumentResolver;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маршрутизация на двух встроенных H2 (профиль {@code replica}). Строки, записанные только в реплику,
+ * показывают, из какой базы пришло чтение.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "replica"})
+class ReadWriteRoutingTest {
+    private static final long SHARED_USER_ID = 900_001L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ReadYourWritesTracker tracker;
+
+    @Value("${shareit.datasource.routing.replica-urls}")
+    private String replicaUrl;
+
+    private JdbcTemplate replica;
+    private Long replicaUserId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(replicaUrl, "sa", "");
+        // схема создается здесь одним соединением: INIT в URL выполнялся бы каждым соединением пула параллельно
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replicaDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("INSERT INTO users (name, email) VALUES ('Replica', 'replica@test.com')");
+        replicaUserId = replica.queryForObject("SELECT id FROM users WHERE email = 'replica@test.com'", Long.class);
+        replica.update("INSERT INTO items (name, description, available, owner_id) VALUES ('Дрель', 'Реплика', true, ?)",
+                replicaUserId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        replica.update("DELETE FROM items WHERE owner_id IN (?, ?)", replicaUserId, SHARED_USER_ID);
+        replica.update("DELETE FROM users WHERE id IN (?, ?)", replicaUserId, SHARED_USER_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", SHARED_USER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", SHARED_USER_ID);
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private int countReplicaOnly(boolean readOnly) {
+        return transaction(readOnly).execute(status -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email = 'replica@test.com'", Integer.class));
+    }
+
+    private static void actAs(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(CurrentUserArgumentResolver.USER_ID_HEADER, String.valueOf(userId));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica_AndWriteTransaction_ShouldUsePrimary() {
+        assertEquals(1, countReplicaOnly(true));
+        assertEquals(0, countReplicaOnly(false));
+    }
+
+    @Test
+    void readOnlyServiceMethod_ShouldReadFromReplica() {
+        List<ItemDto> items = itemService.findAllEnrichedByUser(
+                new SharerPrincipal(replicaUserId, "Replica", "replica@test.com"));
+
+        assertEquals(1, items.size());
+        assertEquals("Реплика", items.get(0).getDescription());
+    }
+
+    @Test
+    void readAfterOwnWrite_ShouldStickToPrimaryOnlyForWriter() {
+        actAs(1_000L);
+        transaction(false).executeWithoutResult(status -> jdbcTemplate.update("UPDATE users SET name = name WHERE id = -1"));
+        assertEquals(0, countReplicaOnly(true));
+
+        actAs(1_001L);
+        assertEquals(1, countReplicaOnly(true));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldLoadEntitiesAsReadOnly() {
+        transaction(true).executeWithoutResult(status -> {
+            User user = entityManager.find(User.class, replicaUserId);
+            assertNotNull(user);
+            assertTrue(entityManager.unwrap(Session.class).isReadOnly(user));
+        });
+    }
+
+    @Test
+    void readOnlyRequest_ShouldResolveUserAndItemsOnReplica_WithoutMarkingUserAsWriter() throws Exception {
+        // пользователь есть только в реплике: запрос проходит, только если и заголовок, и список читались из нее
+        mockMvc.perform(get("/items").header(CurrentUserArgumentResolver.USER_ID_HEADER, replicaUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].description").value("Реплика"));
+
+        assertFalse(tracker.isSticky(replicaUserId));
+    }
+
+    @Test
+    void writeAfterReadInSameRequest_ShouldGoToPrimary_AndNextReadShouldSeeIt() throws Exception {
+        String insert = "INSERT INTO users (id, name, email) VALUES (?, 'Shared', 'shared@test.com')";
+        jdbcTemplate.update(insert, SHARED_USER_ID);
+        replica.update(insert, SHARED_USER_ID);
+
+        // пользователь запроса читается из реплики, затем в том же запросе создается вещь
+        mockMvc.perform(post("/items")
+                        .header(CurrentUserArgumentResolver.USER_ID_HEADER, SHARED_USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Пила\",\"description\":\"Основная\",\"available\":true}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE owner_id = ?", Integer.class, SHARED_USER_ID));
+        assertEquals(0, replica.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE owner_id = ?", Integer.class, SHARED_USER_ID));
+
+        assertTrue(tracker.isSticky(SHARED_USER_ID));
+        mockMvc.perform(get("/items").header(CurrentUserArgumentResolver.USER_ID_HEADER, SHARED_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].description").value("Основная"));
+    }
+}
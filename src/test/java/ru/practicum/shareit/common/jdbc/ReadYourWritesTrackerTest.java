@@ -0,0 +1,35 @@
+package ru.practicum.shareit.common.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesTrackerTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void isSticky_ShouldHoldUntilWindowExpires() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(10, 100, now::get);
+        tracker.markWrite(1L);
+
+        now.addAndGet(99_000_000);
+        assertTrue(tracker.isSticky(1L));
+        assertFalse(tracker.isSticky(2L));
+
+        now.addAndGet(2_000_000);
+        assertFalse(tracker.isSticky(1L));
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    void markWrite_OverCapacity_ShouldStayWithinBound() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(2, 100, now::get);
+        for (long userId = 1; userId <= 10; userId++) {
+            tracker.markWrite(userId);
+        }
+
+        assertEquals(2, tracker.size());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsConfigTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void getItems_ShouldRecordEndpointServiceAndRepositoryMetrics() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", UUID.randomUUID() + "@test.com"));
+        itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        itemRepository.save(new Item(null, "Пила", "Ручная пила", true, owner, null));
+
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        Timer endpoint = meterRegistry.get("http.server.requests").tag("uri", "/items").tag("method", "GET").timer();
+        assertTrue(endpoint.count() >= 1);
+        assertTrue(endpoint.takeSnapshot().histogramCounts().length > 0);
+
+        Timer service = meterRegistry.get(MetricsConfig.SERVICE_TIMER)
+                .tag("class", "ru.practicum.shareit.item.ItemServiceImpl")
+                .tag("method", "findAllEnrichedByUser")
+                .timer();
+        assertTrue(service.count() >= 1);
+        assertTrue(service.takeSnapshot().histogramCounts().length > 0);
+
+        Timer query = meterRegistry.get(RepositoryMetricsInterceptor.INVOCATIONS)
+                .tag("repository", "ItemRepository")
+                .tag("method", "findAllByOwnerId")
+                .tag("exception", "none")
+                .timer();
+        assertTrue(query.count() >= 1);
+        DistributionSummary rows = meterRegistry.get(RepositoryMetricsInterceptor.ROWS)
+                .tag("repository", "ItemRepository")
+                .tag("method", "findAllByOwnerId")
+                .summary();
+        assertEquals(2.0, rows.max());
+        DistributionSummary statements = meterRegistry.get(RepositoryMetricsInterceptor.STATEMENTS)
+                .tag("repository", "ItemRepository")
+                .tag("method", "findAllByOwnerId")
+                .summary();
+        assertEquals(1.0, statements.max());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("shareit_repository_invocations_seconds_bucket{"));
+        assertTrue(scrape.contains("shareit_service_seconds_bucket{"));
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.common.sse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseHubTest {
+    private SimpleMeterRegistry meterRegistry;
+    private List<Runnable> pending;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pending = new ArrayList<>();
+    }
+
+    private static String render(SseEmitter.SseEventBuilder event) {
+        StringBuilder text = new StringBuilder();
+        for (var part : event.build()) {
+            text.append(part.getData());
+        }
+        return text.toString();
+    }
+
+    @Test
+    void sendTo_ShouldDeliverOnlyToSubscriptionsOfUserAndTopic() {
+        SseHub hub = new SseHub(60_000, 4, Runnable::run, meterRegistry);
+        RecordingEmitter booker = new RecordingEmitter();
+        RecordingEmitter otherUser = new RecordingEmitter();
+        RecordingEmitter otherTopic = new RecordingEmitter();
+        hub.register(SseTopic.BOOKINGS, 2L, booker);
+        hub.register(SseTopic.BOOKINGS, 3L, otherUser);
+        hub.register(SseTopic.REQUESTS, 2L, otherTopic);
+
+        hub.sendTo(SseTopic.BOOKINGS, 2L, "booking", 10L, "APPROVED");
+
+        assertEquals(1, booker.sent.size());
+        assertTrue(booker.sent.get(0).contains("event:booking"));
+        assertTrue(booker.sent.get(0).contains("id:10"));
+        assertTrue(otherUser.sent.isEmpty());
+        assertTrue(otherTopic.sent.isEmpty());
+    }
+
+    @Test
+    void broadcast_ShouldSkipAuthor() {
+        SseHub hub = new SseHub(60_000, 4, Runnable::run, meterRegistry);
+        RecordingEmitter author = new RecordingEmitter();
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        hub.register(SseTopic.REQUESTS, 1L, author);
+        hub.register(SseTopic.REQUESTS, 2L, first);
+        hub.register(SseTopic.REQUESTS, 3L, second);
+
+        hub.broadcast(SseTopic.REQUESTS, 1L, "item-request", 5L, "Нужна дрель");
+
+        assertTrue(author.sent.isEmpty());
+        assertEquals(1, first.sent.size());
+        assertEquals(1, second.sent.size());
+    }
+
+    @Test
+    void offer_FullBuffer_ShouldEvictSlowSubscriberOnly() {
+        SseHub hub = new SseHub(60_000, 2, pending::add, meterRegistry);
+        SseHub.Subscriber slow = hub.register(SseTopic.BOOKINGS, 2L, new RecordingEmitter());
+        RecordingEmitter fast = new RecordingEmitter();
+        hub.register(SseTopic.BOOKINGS, 3L, fast);
+
+        for (long id = 1; id <= 3; id++) {
+            hub.sendTo(SseTopic.BOOKINGS, 2L, "booking", id, "WAITING");
+        }
+        hub.sendTo(SseTopic.BOOKINGS, 3L, "booking", 4L, "APPROVED");
+        pending.forEach(Runnable::run);
+
+        assertTrue(slow.isClosed());
+        assertEquals(1, fast.sent.size());
+        assertEquals(1, hub.size());
+        assertEquals(1.0, meterRegistry.counter("shareit.sse.evictions").count());
+    }
+
+    @Test
+    void drain_ShouldSendBufferedEventsInOrderWithOneTask() {
+        SseHub hub = new SseHub(60_000, 8, pending::add, meterRegistry);
+        RecordingEmitter emitter = new RecordingEmitter();
+        SseHub.Subscriber subscriber = hub.register(SseTopic.BOOKINGS, 2L, emitter);
+
+        for (long id = 1; id <= 3; id++) {
+            hub.sendTo(SseTopic.BOOKINGS, 2L, "booking", id, "WAITING");
+        }
+        assertEquals(1, pending.size());
+        assertEquals(3, subscriber.pending());
+        pending.get(0).run();
+
+        assertEquals(3, emitter.sent.size());
+        assertTrue(emitter.sent.get(2).contains("id:3"));
+        assertEquals(0, subscriber.pending());
+    }
+
+    @Test
+    void send_FailingConnection_ShouldUnregisterSubscriber() {
+        SseHub hub = new SseHub(60_000, 4, Runnable::run, meterRegistry);
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failing = true;
+        SseHub.Subscriber subscriber = hub.register(SseTopic.REQUESTS, 2L, broken);
+
+        hub.broadcast(SseTopic.REQUESTS, 1L, "item-request", 5L, "Нужна дрель");
+
+        assertTrue(subscriber.isClosed());
+        assertEquals(0, hub.size());
+    }
+
+    @Test
+    void sendTo_InsideTransaction_ShouldWaitForCommit() {
+        SseHub hub = new SseHub(60_000, 4, Runnable::run, meterRegistry);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(SseTopic.BOOKINGS, 2L, emitter);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hub.sendTo(SseTopic.BOOKINGS, 2L, "booking", 10L, "APPROVED");
+            assertTrue(emitter.sent.isEmpty());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, emitter.sent.size());
+    }
+
+    @Test
+    void heartbeat_ShouldReachEverySubscriber() {
+        SseHub hub = new SseHub(60_000, 4, Runnable::run, meterRegistry);
+        RecordingEmitter bookings = new RecordingEmitter();
+        RecordingEmitter requests = new RecordingEmitter();
+        hub.register(SseTopic.BOOKINGS, 2L, bookings);
+        hub.register(SseTopic.REQUESTS, 3L, requests);
+
+        hub.heartbeat();
+
+        assertEquals(Set.of(":ping\n\n"), Set.copyOf(bookings.sent));
+        assertEquals(1, requests.sent.size());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(render(builder));
+        }
+    }
+}
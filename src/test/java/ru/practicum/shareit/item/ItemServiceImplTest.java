@@ -2,19 +2,31 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingValidationService;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityService;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exceptions.*;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.UserService;
-import ru.practicum.shareit.user.dto.UserDto;
-import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
+import ru.practicum.shareit.request.exceptions.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.match.ItemRequestMatch;
+import ru.practicum.shareit.request.match.ItemRequestMatchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -28,30 +40,59 @@ class ItemServiceImplTest {
     private ItemService itemService;
     private ItemRepository itemRepository;
     private CommentRepository commentRepository;
-    private UserService userService;
     private BookingValidationService bookingValidationService;
     private CommentMapper commentMapper;
     private BookingRepository bookingRepository;
+    private ItemSearchIndex itemSearchIndex;
+    private ItemSuggestIndex itemSuggestIndex;
+    private BookingTimelineIndex bookingTimelineIndex;
+    private ItemAvailabilityService itemAvailabilityService;
+    private ItemRequestRepository itemRequestRepository;
+    private ItemRequestMatchIndex itemRequestMatchIndex;
 
     private User owner;
     private User booker;
+    private SharerPrincipal ownerPrincipal;
+    private SharerPrincipal bookerPrincipal;
     private Item item;
     private Comment comment;
     private Booking booking;
 
+    private ItemBookingView lastBookingView() {
+        ItemBookingView view = mock(ItemBookingView.class);
+        when(view.getItemId()).thenReturn(item.getId());
+        when(view.getKind()).thenReturn(ItemBookingView.LAST);
+        when(view.getId()).thenReturn(booking.getId());
+        when(view.getStart()).thenReturn(booking.getStart());
+        when(view.getEnd()).thenReturn(booking.getEnd());
+        when(view.getStatus()).thenReturn(BookingStatus.APPROVED.name());
+        when(view.getBookerId()).thenReturn(booker.getId());
+        when(view.getBookerName()).thenReturn(booker.getName());
+        when(view.getBookerEmail()).thenReturn(booker.getEmail());
+        return view;
+    }
+
     @BeforeEach
     void setUp() {
         itemRepository = mock(ItemRepository.class);
         commentRepository = mock(CommentRepository.class);
-        userService = mock(UserService.class);
         bookingValidationService = mock(BookingValidationService.class);
         commentMapper = mock(CommentMapper.class);
         bookingRepository = mock(BookingRepository.class);
-        itemService = new ItemServiceImpl(itemRepository, commentRepository, userService,
-                bookingValidationService, commentMapper, bookingRepository);
+        itemSearchIndex = mock(ItemSearchIndex.class);
+        itemSuggestIndex = mock(ItemSuggestIndex.class);
+        bookingTimelineIndex = mock(BookingTimelineIndex.class);
+        itemAvailabilityService = mock(ItemAvailabilityService.class);
+        itemRequestRepository = mock(ItemRequestRepository.class);
+        itemRequestMatchIndex = mock(ItemRequestMatchIndex.class);
+        itemService = new ItemServiceImpl(itemRepository, commentRepository,
+                bookingValidationService, commentMapper, bookingRepository, itemSearchIndex, itemSuggestIndex,
+                bookingTimelineIndex, itemAvailabilityService, itemRequestRepository, itemRequestMatchIndex);
 
         owner = new User(1L, "Owner", "owner@test.com");
         booker = new User(2L, "Booker", "booker@test.com");
+        ownerPrincipal = new SharerPrincipal(1L, "Owner", "owner@test.com");
+        bookerPrincipal = new SharerPrincipal(2L, "Booker", "booker@test.com");
         item = new Item(1L, "Test Item", "Description", true, owner, null);
         comment = new Comment(1L, "Test Comment", item, booker, LocalDateTime.now());
         booking = new Booking(1L, LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1),
@@ -61,25 +102,70 @@ class ItemServiceImplTest {
     @Test
     void create_ValidItem_ShouldCreateItem() {
         Item newItem = new Item(null, "Test Item", "Description", true, null, null);
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
         when(itemRepository.save(any(Item.class))).thenReturn(item);
 
-        Item result = itemService.create(newItem, 1L);
+        ItemDto result = itemService.create(newItem, ownerPrincipal);
 
         assertNotNull(result.getId());
         assertEquals("Test Item", result.getName());
         assertEquals("Description", result.getDescription());
         assertTrue(result.getAvailable());
-        assertEquals(owner, result.getOwner());
+        assertEquals(owner, newItem.getOwner());
+        assertTrue(result.getMatchingRequests().isEmpty());
         verify(itemRepository).save(any(Item.class));
+        verify(itemSuggestIndex).put(item);
     }
 
     @Test
-    void create_NonExistingUser_ShouldThrowException() {
+    void create_ShouldReturnMatchingOpenRequests() {
         Item newItem = new Item(null, "Test Item", "Description", true, null, null);
-        when(userService.findById(1L)).thenThrow(new UserNotFoundException("Пользователь не найден"));
+        ItemRequest newer = new ItemRequest(8L, "Нужен Test Item", booker, LocalDateTime.now());
+        ItemRequest older = new ItemRequest(6L, "Нужна вещь с Description", booker, LocalDateTime.now());
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+        when(itemRequestMatchIndex.match("Test Item Description", 1L, 10))
+                .thenReturn(List.of(new ItemRequestMatch(8L, 2), new ItemRequestMatch(6L, 1)));
+        when(itemRequestRepository.findAllById(List.of(8L, 6L))).thenReturn(List.of(older, newer));
+
+        ItemDto result = itemService.create(newItem, ownerPrincipal);
+
+        assertEquals(List.of(8L, 6L), result.getMatchingRequests().stream().map(ItemRequestMatchDto::getId).toList());
+        assertEquals(2, result.getMatchingRequests().get(0).getScore());
+        assertEquals("Нужна вещь с Description", result.getMatchingRequests().get(1).getDescription());
+    }
+
+    @Test
+    void create_UnavailableItem_ShouldNotQueryMatchIndex() {
+        Item unavailable = new Item(1L, "Test Item", "Description", false, owner, null);
+        when(itemRepository.save(any(Item.class))).thenReturn(unavailable);
+
+        ItemDto result = itemService.create(new Item(null, "Test Item", "Description", false, null, null),
+                ownerPrincipal);
+
+        assertTrue(result.getMatchingRequests().isEmpty());
+        verify(itemRequestMatchIndex, never()).match(any(), any(), anyInt());
+    }
 
-        assertThrows(UserNotFoundException.class, () -> itemService.create(newItem, 1L));
+    @Test
+    void create_WithRequestId_ShouldLinkExistingRequest() {
+        ItemRequest request = new ItemRequest(5L, "Нужна дрель", booker, LocalDateTime.now());
+        Item newItem = new Item(null, "Test Item", "Description", true, null, new ItemRequest(5L, null, null, null));
+        when(itemRequestRepository.existsById(5L)).thenReturn(true);
+        when(itemRequestRepository.getReferenceById(5L)).thenReturn(request);
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ItemDto result = itemService.create(newItem, ownerPrincipal);
+
+        assertSame(request, newItem.getRequest());
+        assertEquals(5L, result.getRequestId());
+        verify(itemRequestMatchIndex).remove(5L);
+    }
+
+    @Test
+    void create_WithUnknownRequestId_ShouldThrowException() {
+        Item newItem = new Item(null, "Test Item", "Description", true, null, new ItemRequest(5L, null, null, null));
+        when(itemRequestRepository.existsById(5L)).thenReturn(false);
+
+        assertThrows(ItemRequestNotFoundException.class, () -> itemService.create(newItem, ownerPrincipal));
         verify(itemRepository, never()).save(any(Item.class));
     }
 
@@ -88,11 +174,10 @@ class ItemServiceImplTest {
         Item updateData = new Item(null, "Updated Name", "Updated Description", false, null, null);
         Item updatedItem = new Item(1L, "Updated Name", "Updated Description", false, owner, null);
 
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(itemRepository.save(any(Item.class))).thenReturn(updatedItem);
 
-        Item result = itemService.update(updateData, 1L, 1L);
+        Item result = itemService.update(updateData, 1L, ownerPrincipal);
 
         assertEquals("Updated Name", result.getName());
         assertEquals("Updated Description", result.getDescription());
@@ -103,20 +188,18 @@ class ItemServiceImplTest {
     @Test
     void update_NonExistingItem_ShouldThrowException() {
         Item updateData = new Item(null, "Updated Name", "Updated Description", false, null, null);
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ItemNotFoundException.class, () -> itemService.update(updateData, 1L, 1L));
+        assertThrows(ItemNotFoundException.class, () -> itemService.update(updateData, 1L, ownerPrincipal));
         verify(itemRepository, never()).save(any(Item.class));
     }
 
     @Test
     void update_ItemNotOwnedByUser_ShouldThrowException() {
         Item updateData = new Item(null, "Updated Name", "Updated Description", false, null, null);
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
 
-        assertThrows(ItemAccessDeniedException.class, () -> itemService.update(updateData, 1L, 2L));
+        assertThrows(ItemAccessDeniedException.class, () -> itemService.update(updateData, 1L, bookerPrincipal));
         verify(itemRepository, never()).save(any(Item.class));
     }
 
@@ -140,7 +223,6 @@ class ItemServiceImplTest {
     @Test
     void findAllByUser_ShouldReturnUserItems() {
         List<Item> items = List.of(item);
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
         when(itemRepository.findAllByOwnerId(1L)).thenReturn(items);
 
         List<Item> result = itemService.findAllByUser(1L);
@@ -149,34 +231,50 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void findAllByUser_NonExistingUser_ShouldThrowException() {
-        when(userService.findById(1L)).thenThrow(new UserNotFoundException("Пользователь не найден"));
+    void search_ShouldReturnMatchingItems() {
+        List<Item> items = List.of(item);
+        when(itemRepository.search(eq("test"), any(Pageable.class))).thenReturn(items);
 
-        assertThrows(UserNotFoundException.class, () -> itemService.findAllByUser(1L));
+        List<Item> result = itemService.search("test", 0, 10);
+        assertEquals(1, result.size());
+        assertEquals("Test Item", result.get(0).getName());
     }
 
     @Test
-    void search_ShouldReturnMatchingItems() {
-        List<Item> items = List.of(item);
-        when(itemRepository.search("test")).thenReturn(items);
+    void search_IndexEnabled_ShouldUseIndex() {
+        Item second = new Item(2L, "Test Item 2", "Description", true, owner, null);
+        when(itemSearchIndex.getMode()).thenReturn(ItemSearchMode.INDEX);
+        when(itemSearchIndex.search("test", 1, 10)).thenReturn(List.of(2L));
+        when(itemSearchIndex.search("test", 5, 10)).thenReturn(List.of());
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(second));
+
+        List<Item> result = itemService.search("test", 1, 10);
+        assertEquals(List.of(second), result);
+        assertTrue(itemService.search("test", 5, 10).isEmpty());
+        verify(itemRepository, never()).search(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void search_FulltextMode_ShouldUseRankedQuery() {
+        when(itemSearchIndex.getMode()).thenReturn(ItemSearchMode.FULLTEXT);
+        when(itemRepository.searchRanked("test", 0, 10)).thenReturn(List.of(item));
 
-        List<Item> result = itemService.search("test");
+        List<Item> result = itemService.search("test", 0, 10);
         assertEquals(1, result.size());
-        assertEquals("Test Item", result.get(0).getName());
+        verify(itemRepository, never()).search(anyString(), any(Pageable.class));
     }
 
     @Test
     void search_EmptyText_ShouldReturnEmptyList() {
-        List<Item> result = itemService.search("");
+        List<Item> result = itemService.search("", 0, 10);
         assertTrue(result.isEmpty());
-        verify(itemRepository, never()).search(anyString());
+        verify(itemRepository, never()).search(anyString(), any(Pageable.class));
     }
 
     @Test
     void addComment_ValidComment_ShouldAddComment() {
         CommentDto commentDto = new CommentDto();
         commentDto.setText("Test Comment");
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(bookingValidationService.hasUserBookedItem(2L, 1L)).thenReturn(true);
         when(commentMapper.toComment(commentDto)).thenReturn(comment);
@@ -188,7 +286,7 @@ class ItemServiceImplTest {
         expectedDto.setCreated(LocalDateTime.now());
         when(commentMapper.toDto(comment)).thenReturn(expectedDto);
 
-        CommentDto result = itemService.addComment(1L, 2L, commentDto);
+        CommentDto result = itemService.addComment(1L, bookerPrincipal, commentDto);
 
         assertNotNull(result);
         assertEquals("Test Comment", result.getText());
@@ -199,11 +297,10 @@ class ItemServiceImplTest {
     void addComment_UserNotBookedItem_ShouldThrowException() {
         CommentDto commentDto = new CommentDto();
         commentDto.setText("Test Comment");
-        when(userService.findById(2L)).thenReturn(new UserDto(2L, "Booker", "booker@test.com"));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(bookingValidationService.hasUserBookedItem(2L, 1L)).thenReturn(false);
 
-        assertThrows(CommentNotAllowedException.class, () -> itemService.addComment(1L, 2L, commentDto));
+        assertThrows(CommentNotAllowedException.class, () -> itemService.addComment(1L, bookerPrincipal, commentDto));
         verify(commentRepository, never()).save(any(Comment.class));
     }
 
@@ -225,8 +322,9 @@ class ItemServiceImplTest {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(commentRepository.findAllByItemIdIn(List.of(1L))).thenReturn(List.of(comment));
         when(commentMapper.toDto(comment)).thenReturn(new CommentDto(1L, "Test Comment", "Booker", LocalDateTime.now()));
-        when(bookingRepository.findAllByItemIdsAndStatusOrderByStartAsc(List.of(1L), BookingStatus.APPROVED))
-                .thenReturn(List.of(booking));
+        ItemBookingView lastBooking = lastBookingView();
+        when(bookingRepository.findLastAndNextApprovedByItemIds(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking));
         when(commentMapper.toDto(any(Comment.class))).thenReturn(new CommentDto(1L, "Test Comment", "Booker", LocalDateTime.now()));
 
         ItemDto result = itemService.getEnrichedItemDto(1L, 1L);
@@ -236,20 +334,36 @@ class ItemServiceImplTest {
         assertEquals("Test Item", result.getName());
         assertNotNull(result.getComments());
         assertEquals(1, result.getComments().size());
+        assertEquals(booking.getId(), result.getLastBooking().getId());
+        assertEquals("Booker", result.getLastBooking().getBooker().getName());
+        assertNull(result.getNextBooking());
+    }
+
+    @Test
+    void getEnrichedItemDto_TimelineEnabled_ShouldNotQueryBookings() {
+        ItemBookingView lastBooking = lastBookingView();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingTimelineIndex.isEnabled()).thenReturn(true);
+        when(bookingTimelineIndex.findLastAndNext(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(lastBooking));
+
+        ItemDto result = itemService.getEnrichedItemDto(1L, 1L);
+
+        assertEquals(booking.getId(), result.getLastBooking().getId());
+        verify(bookingRepository, never()).findLastAndNextApprovedByItemIds(anyList(), any(LocalDateTime.class));
     }
 
     @Test
     void findAllEnrichedByUser_ShouldReturnEnrichedItems() {
         List<Item> items = List.of(item);
-        when(userService.findById(1L)).thenReturn(new UserDto(1L, "Owner", "owner@test.com"));
         when(itemRepository.findAllByOwnerId(1L)).thenReturn(items);
         when(commentRepository.findAllByItemIdIn(List.of(1L))).thenReturn(List.of(comment));
         when(commentMapper.toDto(comment)).thenReturn(new CommentDto(1L, "Test Comment", "Booker", LocalDateTime.now()));
-        when(bookingRepository.findAllByItemIdsAndStatusOrderByStartAsc(List.of(1L), BookingStatus.APPROVED))
-                .thenReturn(List.of(booking));
+        ItemBookingView lastBooking = lastBookingView();
+        when(bookingRepository.findLastAndNextApprovedByItemIds(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking));
         when(commentMapper.toDto(any(Comment.class))).thenReturn(new CommentDto(1L, "Test Comment", "Booker", LocalDateTime.now()));
 
-        List<ItemDto> result = itemService.findAllEnrichedByUser(1L);
+        List<ItemDto> result = itemService.findAllEnrichedByUser(ownerPrincipal);
 
         assertEquals(1, result.size());
         ItemDto itemDto = result.get(0);
@@ -267,4 +381,24 @@ class ItemServiceImplTest {
 
         verify(itemRepository).delete(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability_ShouldDelegateWithRange() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(1);
+        List<AvailabilityIntervalDto> free = List.of(new AvailabilityIntervalDto(from, to));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemAvailabilityService.findFreeIntervals(1L, from, to)).thenReturn(free);
+
+        assertEquals(free, itemService.getAvailability(1L, from, to));
+    }
+
+    @Test
+    void getAvailability_InvalidRange_ShouldThrowException() {
+        LocalDateTime from = LocalDateTime.now();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        assertThrows(InvalidDateRangeException.class, () -> itemService.getAvailability(1L, from, from));
+        assertThrows(InvalidDateRangeException.class, () -> itemService.getAvailability(1L, from, from.plusYears(2)));
+    }
+}
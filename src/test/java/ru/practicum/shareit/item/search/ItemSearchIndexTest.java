@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ItemSearchIndexTest {
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        index = new ItemSearchIndex(itemRepository, ItemSearchMode.INDEX);
+        owner = new User(1L, "Owner", "owner@test.com");
+    }
+
+    private List<Long> searchAll(String text) {
+        return index.search(text, 0, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void search_Substring_ShouldMatchNameAndDescription() {
+        index.index(new Item(1L, "Дрель", "Простая дрель", true, owner, null));
+        index.index(new Item(2L, "Отвертка", "Аккумуляторная ДРЕЛЬ-шуруповерт", true, owner, null));
+        index.index(new Item(3L, "Молоток", "Тяжелый", true, owner, null));
+
+        assertEquals(List.of(1L, 2L), searchAll("дРеЛь"));
+        assertEquals(List.of(2L), searchAll("ль-шу"));
+        assertEquals(List.of(3L), searchAll("ок"));
+        assertTrue(searchAll("пила").isEmpty());
+    }
+
+    @Test
+    void search_Page_ShouldStopAfterRequestedMatchesInIdOrder() {
+        index.index(new Item(4L, "Дрель", "Ударная", true, owner, null));
+        index.index(new Item(2L, "Дрель", "Простая", true, owner, null));
+        index.index(new Item(3L, "Дрель", "Сломана", false, owner, null));
+        index.index(new Item(1L, "Пила", "Ручная", true, owner, null));
+        index.index(new Item(5L, "Дрель", "Мощная", true, owner, null));
+
+        assertEquals(List.of(4L, 5L), index.search("дрель", 1, 2));
+        assertEquals(List.of(2L), index.search("дрель", 0, 1));
+        assertTrue(index.search("дрель", 3, 10).isEmpty());
+        assertEquals(List.of(2L, 4L), index.search("др", 0, 2));
+    }
+
+    @Test
+    void search_UnavailableItem_ShouldBeSkipped() {
+        index.index(new Item(1L, "Дрель", "Простая дрель", false, owner, null));
+
+        assertTrue(searchAll("дрель").isEmpty());
+    }
+
+    @Test
+    void index_UpdatedItem_ShouldReplaceOldTerms() {
+        index.index(new Item(1L, "Дрель", "Простая дрель", true, owner, null));
+        index.index(new Item(1L, "Пила", "Ручная пила", true, owner, null));
+
+        assertTrue(searchAll("дрель").isEmpty());
+        assertEquals(List.of(1L), searchAll("пила"));
+    }
+
+    @Test
+    void remove_ShouldDropItem() {
+        index.index(new Item(1L, "Дрель", "Простая дрель", true, owner, null));
+        index.remove(1L);
+
+        assertTrue(searchAll("дрель").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void rebuild_ShouldLoadAllItems() {
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(
+                List.of(new Item(5L, "Дрель", "Простая дрель", true, owner, null)),
+                PageRequest.of(0, 10), 1));
+
+        index.rebuild();
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(5L), searchAll("дрель"));
+    }
+
+    @Test
+    void disabledIndex_ShouldIgnoreUpdates() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemRepository, ItemSearchMode.LIKE);
+        disabled.index(new Item(1L, "Дрель", "Простая дрель", true, owner, null));
+        disabled.rebuild();
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(0, disabled.size());
+        verify(itemRepository, never()).findAll(any(Pageable.class));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSuggestIndexTest {
+    private ItemRepository itemRepository;
+    private ItemSuggestIndex index;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        index = new ItemSuggestIndex(itemRepository);
+        owner = new User(1L, "Owner", "owner@test.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void suggest_ShouldReturnSortedCompletions() {
+        index.put(new Item(1L, "Дрель ударная", "d", true, owner, null));
+        index.put(new Item(2L, "Дрель", "d", true, owner, null));
+        index.put(new Item(3L, "Доска", "d", true, owner, null));
+        index.put(new Item(4L, "дрель", "d", false, owner, null));
+        index.refresh();
+
+        assertEquals(List.of("Дрель", "Дрель ударная"), index.suggest("ДР", 10));
+        assertEquals(List.of("Доска"), index.suggest("д", 1));
+        assertTrue(index.suggest("пила", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldRankByNameFrequency() {
+        index.put(new Item(1L, "Дрель аккумуляторная", "d", true, owner, null));
+        index.put(new Item(2L, "Дрель", "d", true, owner, null));
+        index.put(new Item(3L, "Дрель", "d", true, owner, null));
+        index.put(new Item(4L, "Дрель", "d", true, owner, null));
+        index.put(new Item(5L, "Дрель ударная", "d", true, owner, null));
+        index.put(new Item(6L, "Дрель ударная", "d", true, owner, null));
+        index.put(new Item(7L, "Доска", "d", true, owner, null));
+        index.put(new Item(8L, "Доска", "d", true, owner, null));
+        index.put(new Item(9L, "Доска", "d", true, owner, null));
+        index.put(new Item(10L, "Доска", "d", true, owner, null));
+        index.refresh();
+
+        assertEquals(List.of("Дрель", "Дрель ударная"), index.suggest("др", 2));
+        assertEquals(List.of("Дрель", "Дрель ударная", "Дрель аккумуляторная"), index.suggest("дрель", 10));
+        assertEquals(List.of("Доска", "Дрель"), index.suggest("д", 2));
+    }
+
+    @Test
+    void suggest_DuplicateNames_ShouldBeCollapsed() {
+        index.put(new Item(1L, "Дрель", "d", true, owner, null));
+        index.put(new Item(2L, "Дрель", "d", true, owner, null));
+        index.refresh();
+
+        assertEquals(List.of("Дрель"), index.suggest("дрель", 10));
+    }
+
+    @Test
+    void put_UnavailableUpdate_ShouldDropName() {
+        index.put(new Item(1L, "Дрель", "d", true, owner, null));
+        index.put(new Item(1L, "Дрель", "d", false, owner, null));
+        index.refresh();
+
+        assertTrue(index.suggest("дрель", 10).isEmpty());
+    }
+
+    @Test
+    void remove_ShouldDropName() {
+        index.put(new Item(1L, "Дрель", "d", true, owner, null));
+        index.remove(1L);
+        index.refresh();
+
+        assertTrue(index.suggest("дрель", 10).isEmpty());
+    }
+
+    @Test
+    void load_RemoveWhileLoading_ShouldNotBeOverwrittenByLoadedPage() throws Exception {
+        Item drill = new Item(1L, "Дрель", "d", true, owner, null);
+        CountDownLatch pageRead = new CountDownLatch(1);
+        CountDownLatch removed = new CountDownLatch(1);
+        when(itemRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            pageRead.countDown();
+            removed.await(5, TimeUnit.SECONDS);
+            return new PageImpl<>(List.of(drill), invocation.getArgument(0), 1);
+        });
+
+        index.load();
+        assertTrue(pageRead.await(5, TimeUnit.SECONDS));
+        index.remove(1L);
+        removed.countDown();
+        index.refresh();
+
+        assertTrue(index.suggest("дрель", 10).isEmpty());
+    }
+}
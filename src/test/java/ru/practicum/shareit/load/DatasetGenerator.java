@@ -0,0 +1,350 @@
+package ru.practicum.shareit.load;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Синтетический набор данных в таблицах {@code schema.sql}: пользователи, вещи, бронирования, комментарии.
+ * Владельцы вещей выбираются по Ципфу (немногие владеют большей частью вещей), бронирования и комментарии
+ * достаются вещам тоже по Ципфу (популярные вещи). Бронирования одной вещи идут друг за другом без пересечений,
+ * как того требует ограничение {@code bookings_no_overlap}. Ранг в распределении совпадает со смещением id:
+ * пользователь {@code firstUserId + 0} — самый крупный владелец, вещь {@code firstItemId + 0} — самая популярная.
+ * <p>
+ * В PostgreSQL строки загружаются через {@code COPY ... FROM STDIN}, в остальных базах — пакетами JDBC.
+ * После загрузки счетчики id переставляются за максимальный id, чтобы приложение могло дописывать строки.
+ * <pre>
+ * mvn -Pload test-compile exec:java -Dload.main=ru.practicum.shareit.load.DatasetGenerator \
+ *     -Dexec.args="--url=jdbc:postgresql://localhost:5432/shareit --username=shareit --password=... --users=1000000"
+ * </pre>
+ */
+public class DatasetGenerator {
+    static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+    static final String[] NOUNS = {"дрель", "пила", "лестница", "палатка", "велосипед", "шуруповерт", "перфоратор",
+        "самокат", "лодка", "мангал", "проектор", "камера", "штатив", "рюкзак", "спальник", "генератор", "компрессор",
+        "болгарка", "рубанок", "уровень", "тачка", "газонокосилка", "триммер", "пылесос", "отпариватель", "коляска",
+        "автокресло", "сноуборд", "лыжи", "коньки", "гитара", "синтезатор", "микрофон", "колонка", "дрон", "бинокль",
+        "телескоп", "удочка", "котелок", "гамак"};
+    static final String[] ADJECTIVES = {"аккумуляторная", "электрическая", "ручная", "складная", "большая",
+        "компактная", "профессиональная", "детская", "туристическая", "новая", "легкая", "мощная"};
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COPY_CHUNK = 50_000;
+
+    private final DataSource dataSource;
+    private final Spec spec;
+
+    /**
+     * Размеры набора и перекос: {@code ownerSkew} — показатель Ципфа для владельцев, {@code itemSkew} —
+     * для популярности вещей.
+     */
+    public record Spec(int users, int items, int bookings, int comments, double ownerSkew, double itemSkew,
+                       long seed) {
+        public static Spec of(int users, int items, int bookings, int comments) {
+            return new Spec(users, items, bookings, comments, 1.1, 1.0, 42);
+        }
+    }
+
+    public record Dataset(Spec spec, long firstUserId, long firstItemId, Duration elapsed) {
+        public long userId(int rank) {
+            return firstUserId + rank;
+        }
+
+        public long itemId(int rank) {
+            return firstItemId + rank;
+        }
+    }
+
+    public DatasetGenerator(DataSource dataSource, Spec spec) {
+        if (spec.users() < 2 || spec.items() < 1) {
+            throw new IllegalArgumentException("Нужны хотя бы два пользователя и одна вещь");
+        }
+        this.dataSource = dataSource;
+        this.spec = spec;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = options(args);
+        DataSource dataSource = new DriverManagerDataSource(options.getOrDefault("url",
+                "jdbc:postgresql://localhost:5432/java-shareit"),
+                options.getOrDefault("username", "java-shareit"), options.getOrDefault("password", ""));
+        Spec spec = spec(options, 1_000_000, 2_000_000, 10_000_000, 2_000_000);
+        initSchema(dataSource);
+        Dataset dataset = new DatasetGenerator(dataSource, spec).generate();
+        System.out.printf("Загружено за %d с: %s%n", dataset.elapsed().toSeconds(), spec);
+    }
+
+    /**
+     * Создает таблицы тем же скриптом, что и приложение; в PostgreSQL добавляет его индексы и ограничения.
+     */
+    public static void initSchema(DataSource dataSource) throws SQLException {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        if (isPostgres(dataSource)) {
+            populator.addScript(new ClassPathResource("schema-postgresql.sql"));
+        }
+        populator.execute(dataSource);
+    }
+
+    public Dataset generate() throws SQLException {
+        long started = System.nanoTime();
+        Random random = new Random(spec.seed());
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            long firstUserId = nextId(connection, "users");
+            long firstItemId = nextId(connection, "items");
+
+            try (RowWriter users = writer(connection, postgres, "users", "id", "name", "email")) {
+                for (int i = 0; i < spec.users(); i++) {
+                    long id = firstUserId + i;
+                    users.write(id, "User " + id, "user" + id + "@load.test");
+                }
+            }
+
+            Zipf owners = new Zipf(spec.users(), spec.ownerSkew());
+            Zipf nouns = new Zipf(NOUNS.length, 1.0);
+            long[] ownerOf = new long[spec.items()];
+            try (RowWriter items = writer(connection, postgres, "items",
+                    "id", "name", "description", "available", "owner_id")) {
+                for (int i = 0; i < spec.items(); i++) {
+                    String noun = NOUNS[nouns.sample(random)];
+                    String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+                    ownerOf[i] = firstUserId + owners.sample(random);
+                    items.write(firstItemId + i, adjective + " " + noun,
+                            noun + " " + adjective + ", " + NOUNS[nouns.sample(random)] + " в комплекте",
+                            random.nextInt(10) > 0, ownerOf[i]);
+                }
+            }
+
+            Zipf popularity = new Zipf(spec.items(), spec.itemSkew());
+            long[] timeline = new long[spec.items()];
+            long epoch = EPOCH.toEpochSecond(ZoneOffset.UTC);
+            for (int i = 0; i < timeline.length; i++) {
+                timeline[i] = epoch + random.nextInt(30 * 24) * 3600L;
+            }
+            try (RowWriter bookings = writer(connection, postgres, "bookings",
+                    "id", "start_date", "end_date", "item_id", "booker_id", "status")) {
+                long firstBookingId = nextId(connection, "bookings");
+                for (int i = 0; i < spec.bookings(); i++) {
+                    int item = popularity.sample(random);
+                    long start = timeline[item] + random.nextInt(48) * 3600L;
+                    long end = start + (1 + random.nextInt(72)) * 3600L;
+                    timeline[item] = end;
+                    bookings.write(firstBookingId + i, time(start), time(end), firstItemId + item,
+                            booker(random, firstUserId, ownerOf[item]), status(random).name());
+                }
+            }
+
+            try (RowWriter comments = writer(connection, postgres, "comments",
+                    "id", "text", "item_id", "author_id", "created")) {
+                long firstCommentId = nextId(connection, "comments");
+                for (int i = 0; i < spec.comments(); i++) {
+                    int item = popularity.sample(random);
+                    comments.write(firstCommentId + i, "Отзыв " + (i + 1) + ": " + NOUNS[nouns.sample(random)]
+                                    + " в порядке", firstItemId + item, booker(random, firstUserId, ownerOf[item]),
+                            time(epoch + random.nextInt(365 * 24) * 3600L));
+                }
+            }
+
+            restartIdentities(connection, postgres);
+            connection.commit();
+            return new Dataset(spec, firstUserId, firstItemId, Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    static Spec spec(Map<String, String> options, int users, int items, int bookings, int comments) {
+        return new Spec(
+                Integer.parseInt(options.getOrDefault("users", String.valueOf(users))),
+                Integer.parseInt(options.getOrDefault("items", String.valueOf(items))),
+                Integer.parseInt(options.getOrDefault("bookings", String.valueOf(bookings))),
+                Integer.parseInt(options.getOrDefault("comments", String.valueOf(comments))),
+                Double.parseDouble(options.getOrDefault("owner-skew", "1.1")),
+                Double.parseDouble(options.getOrDefault("item-skew", "1.0")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+    }
+
+    private static boolean isPostgres(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isWrapperFor(PGConnection.class);
+        }
+    }
+
+    /**
+     * Случайный пользователь, кроме владельца вещи: бронировать и комментировать свои вещи нельзя.
+     */
+    private long booker(Random random, long firstUserId, long owner) {
+        long booker = firstUserId + random.nextInt(spec.users());
+        return booker != owner ? booker : firstUserId + (booker - firstUserId + 1) % spec.users();
+    }
+
+    private static BookingStatus status(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 75) {
+            return BookingStatus.APPROVED;
+        }
+        if (roll < 88) {
+            return BookingStatus.WAITING;
+        }
+        return roll < 96 ? BookingStatus.REJECTED : BookingStatus.CANCELED;
+    }
+
+    private static LocalDateTime time(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Id заданы явно, поэтому счетчики таблиц и {@code bookings_seq} (им пользуется Hibernate, шаг 50)
+     * нужно перенести за максимальный id.
+     */
+    private static void restartIdentities(Connection connection, boolean postgres) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of("users", "items", "bookings", "comments")) {
+                long next = nextId(connection, table);
+                statement.execute(postgres
+                        ? String.format("SELECT setval(pg_get_serial_sequence('%s', 'id'), %d, false)", table, next)
+                        : String.format("ALTER TABLE %s ALTER COLUMN id RESTART WITH %d", table, next));
+            }
+            long bookingSeq = nextId(connection, "bookings") + 50;
+            statement.execute(postgres
+                    ? String.format("SELECT setval('bookings_seq', %d, false)", bookingSeq)
+                    : String.format("ALTER SEQUENCE bookings_seq RESTART WITH %d", bookingSeq));
+        }
+    }
+
+    private static RowWriter writer(Connection connection, boolean postgres, String table, String... columns)
+            throws SQLException {
+        return postgres
+                ? new CopyWriter(connection, table, columns)
+                : new BatchWriter(connection, table, columns);
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(Object... values) throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    private static final class BatchWriter implements RowWriter {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private int pending;
+
+        private BatchWriter(Connection connection, String table, String... columns) throws SQLException {
+            this.connection = connection;
+            this.statement = connection.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns)
+                    + ") VALUES (" + "?, ".repeat(columns.length - 1) + "?)");
+        }
+
+        @Override
+        public void write(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            statement.executeBatch();
+            connection.commit();
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+
+    private static final class CopyWriter implements RowWriter {
+        private final Connection connection;
+        private final CopyManager copyManager;
+        private final String sql;
+        private final StringBuilder buffer = new StringBuilder();
+        private int pending;
+
+        private CopyWriter(Connection connection, String table, String... columns) throws SQLException {
+            this.connection = connection;
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            this.sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        }
+
+        @Override
+        public void write(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                String value = String.valueOf(values[i]);
+                buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+            buffer.append('\n');
+            if (++pending == COPY_CHUNK) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            try {
+                copyManager.copyIn(sql, new StringReader(buffer.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY не выполнен", e);
+            }
+            connection.commit();
+            buffer.setLength(0);
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (pending > 0) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.load;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:dataset-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        DatasetGenerator.initSchema(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void generate_ShouldLoadRequestedCounts() throws SQLException {
+        DatasetGenerator.Dataset dataset =
+                new DatasetGenerator(dataSource, DatasetGenerator.Spec.of(200, 1_000, 5_000, 800)).generate();
+
+        assertEquals(200, count("users"));
+        assertEquals(1_000, count("items"));
+        assertEquals(5_000, count("bookings"));
+        assertEquals(800, count("comments"));
+        assertEquals(jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class), dataset.firstUserId());
+        assertEquals(jdbcTemplate.queryForObject("SELECT MIN(id) FROM items", Long.class), dataset.firstItemId());
+    }
+
+    @Test
+    void generate_ShouldNotOverlapActiveBookingsOrBookOwnItems() throws SQLException {
+        new DatasetGenerator(dataSource, DatasetGenerator.Spec.of(100, 300, 5_000, 0)).generate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings a JOIN bookings b " +
+                "ON a.item_id = b.item_id AND a.id < b.id AND a.start_date < b.end_date AND b.start_date < a.end_date " +
+                "WHERE a.status IN ('APPROVED', 'WAITING') AND b.status IN ('APPROVED', 'WAITING')", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id " +
+                "WHERE b.booker_id = i.owner_id", Long.class));
+    }
+
+    @Test
+    void generate_ShouldSkewOwnersAndBookings() throws SQLException {
+        DatasetGenerator.Dataset dataset =
+                new DatasetGenerator(dataSource, DatasetGenerator.Spec.of(1_000, 10_000, 20_000, 0)).generate();
+
+        long topOwners = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE owner_id < ?", Long.class,
+                dataset.userId(10));
+        long topItems = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE item_id < ?", Long.class,
+                dataset.itemId(100));
+
+        assertTrue(topOwners > 10_000 / 4, "1% владельцев должны владеть заметной долей вещей: " + topOwners);
+        assertTrue(topItems > 20_000 / 4, "1% вещей должны собирать заметную долю бронирований: " + topItems);
+    }
+
+    @Test
+    void generate_ShouldRestartIdentitiesAndAppendToExistingRows() throws SQLException {
+        new DatasetGenerator(dataSource, DatasetGenerator.Spec.of(10, 10, 10, 10)).generate();
+        DatasetGenerator.Dataset second =
+                new DatasetGenerator(dataSource, new DatasetGenerator.Spec(10, 10, 10, 10, 1.1, 1.0, 7)).generate();
+
+        assertEquals(11, second.firstUserId());
+        assertEquals(20, count("users"));
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('New', 'new@test.com')");
+        assertEquals(21L, jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'new@test.com'", Long.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR bookings_seq", Long.class)
+                > jdbcTemplate.queryForObject("SELECT MAX(id) FROM bookings", Long.class));
+    }
+
+    @Test
+    void zipf_ShouldFavorLowRanks() {
+        Zipf zipf = new Zipf(1_000, 1.0);
+        Random random = new Random(1);
+        int[] hits = new int[zipf.size()];
+        for (int i = 0; i < 100_000; i++) {
+            hits[zipf.sample(random)]++;
+        }
+
+        assertTrue(hits[0] > hits[1] && hits[1] > hits[10] && hits[10] > hits[500]);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,305 @@
+package ru.practicum.shareit.load;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.ShareItApp;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Нагрузочный прогон сквозь настоящие контроллеры: загружает {@link DatasetGenerator} набор данных, поднимает
+ * приложение на случайном порту и гоняет смесь запросов к {@code /items} и {@code /bookings} из
+ * {@code concurrency} потоков (замкнутый цикл: следующий запрос после ответа на предыдущий). Владельцы и вещи
+ * выбираются с тем же перекосом, что в данных. По умолчанию база — H2 в памяти; для PostgreSQL передается
+ * {@code --url}, {@code --username}, {@code --password}.
+ * <pre>
+ * mvn -Pload test-compile exec:java -Dexec.args="--users=100000 --items=300000 --bookings=2000000 --requests=200000"
+ * </pre>
+ */
+public final class LoadTestHarness {
+    private static final String H2_URL =
+            "jdbc:h2:mem:load-harness;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    public static final int BATCH_SIZE = 20;
+
+    public enum Endpoint {
+        ITEMS_BY_OWNER("GET /items", 25, 0),
+        ITEM_BY_ID("GET /items/{id}", 25, 0),
+        ITEM_SEARCH("GET /items/search", 15, 0),
+        BOOKINGS_BY_OWNER("GET /bookings/owner", 10, 0),
+        BOOKINGS_BY_BOOKER("GET /bookings", 10, 0),
+        BOOKING_CREATE("POST /bookings", 10, 1),
+        BOOKING_BATCH("POST /bookings/batch", 5, BATCH_SIZE);
+
+        private final String title;
+        private final int weight;
+        private final int bookings;
+
+        Endpoint(String title, int weight, int bookings) {
+            this.title = title;
+            this.weight = weight;
+            this.bookings = bookings;
+        }
+
+        public String title() {
+            return title;
+        }
+
+        /**
+         * Сколько бронирований создает один запрос (0 — только чтение).
+         */
+        public int bookings() {
+            return bookings;
+        }
+    }
+
+    public record Options(String url, String username, String password, DatasetGenerator.Spec spec,
+                          int concurrency, int warmup, int requests) {
+        boolean h2() {
+            return url.startsWith("jdbc:h2:");
+        }
+    }
+
+    public record EndpointStats(Endpoint endpoint, int requests, double throughput, double p50Ms, double p99Ms,
+                                double p999Ms, double maxMs, int non2xx, int errors) {
+    }
+
+    public record Report(List<EndpointStats> endpoints, int requests, double throughput, Duration elapsed) {
+        public EndpointStats get(Endpoint endpoint) {
+            return endpoints.stream().filter(stats -> stats.endpoint() == endpoint).findFirst().orElseThrow();
+        }
+
+        /**
+         * Медиана времени ответа в пересчете на одно бронирование: сравнение вставки по одному и пакетом.
+         */
+        public double p50MsPerBooking(Endpoint endpoint) {
+            return get(endpoint).p50Ms() / endpoint.bookings();
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%-22s %9s %9s %9s %9s %9s %9s %8s %7s%n", "endpoint", "requests", "req/s",
+                    "p50, ms", "p99, ms", "p999, ms", "max, ms", "non-2xx", "errors");
+            for (EndpointStats stats : endpoints) {
+                out.printf("%-22s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %8d %7d%n", stats.endpoint().title(),
+                        stats.requests(), stats.throughput(), stats.p50Ms(), stats.p99Ms(), stats.p999Ms(),
+                        stats.maxMs(), stats.non2xx(), stats.errors());
+            }
+            out.printf("%-22s %9d %9.0f   за %d мс%n", "total", requests, throughput, elapsed.toMillis());
+            out.printf("p50 на бронирование: по одному %.2f мс, пакетом по %d %.2f мс%n",
+                    p50MsPerBooking(Endpoint.BOOKING_CREATE), BATCH_SIZE, p50MsPerBooking(Endpoint.BOOKING_BATCH));
+        }
+    }
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = DatasetGenerator.options(args);
+        run(new Options(
+                options.getOrDefault("url", H2_URL),
+                options.getOrDefault("username", "sa"),
+                options.getOrDefault("password", ""),
+                DatasetGenerator.spec(options, 10_000, 50_000, 500_000, 100_000),
+                Integer.parseInt(options.getOrDefault("concurrency", "32")),
+                Integer.parseInt(options.getOrDefault("warmup", "5000")),
+                Integer.parseInt(options.getOrDefault("requests", "50000"))))
+                .print(System.out);
+    }
+
+    public static Report run(Options options) throws SQLException, InterruptedException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(options.url(), options.username(),
+                options.password());
+        DatasetGenerator.initSchema(dataSource);
+        DatasetGenerator.Dataset dataset = new DatasetGenerator(dataSource, options.spec()).generate();
+        System.out.printf("Набор данных загружен за %d мс: %s%n", dataset.elapsed().toMillis(), options.spec());
+
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + options.url(),
+                "--spring.datasource.username=" + options.username(),
+                "--spring.datasource.password=" + options.password(),
+                "--logging.level.org.springframework.transaction.interceptor=INFO",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"));
+        if (options.h2()) {
+            appArgs.add("--spring.profiles.active=test");
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .run(appArgs.toArray(new String[0]))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            Workload workload = new Workload(port, dataset);
+            drive(workload, options.concurrency(), options.warmup(), options.spec().seed() + 1);
+            return drive(workload, options.concurrency(), options.requests(), options.spec().seed() + 2);
+        }
+    }
+
+    private static Report drive(Workload workload, int concurrency, int requests, long seed)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(requests));
+        }
+        AtomicInteger remaining = new AtomicInteger(requests);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int worker = 0; worker < concurrency; worker++) {
+            Random random = new Random(seed * 31 + worker);
+            workers.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    Endpoint endpoint = workload.pick(random);
+                    HttpRequest request = workload.request(endpoint, random);
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    recorders.get(endpoint).record(System.nanoTime() - start, status);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        double seconds = elapsed.toNanos() / 1e9;
+
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.add(recorders.get(endpoint).stats(endpoint, seconds));
+        }
+        return new Report(stats, requests, requests / seconds, elapsed);
+    }
+
+    /**
+     * Смесь запросов. Владельцы для {@code GET /items} и {@code GET /bookings/owner} и вещи для
+     * {@code GET /items/{id}} выбираются по тому же Ципфу, что и при генерации; новые бронирования ставятся
+     * в далекое будущее на случайный час, так что пересечения редки, но возможны (409). Пакет из
+     * {@value LoadTestHarness#BATCH_SIZE} таких бронирований уходит в {@code POST /bookings/batch}.
+     */
+    private static final class Workload {
+        private final int port;
+        private final DatasetGenerator.Dataset dataset;
+        private final Zipf owners;
+        private final Zipf items;
+        private final Zipf words;
+        private final Endpoint[] wheel;
+
+        private Workload(int port, DatasetGenerator.Dataset dataset) {
+            this.port = port;
+            this.dataset = dataset;
+            this.owners = new Zipf(dataset.spec().users(), dataset.spec().ownerSkew());
+            this.items = new Zipf(dataset.spec().items(), dataset.spec().itemSkew());
+            this.words = new Zipf(DatasetGenerator.NOUNS.length, 1.0);
+            this.wheel = Arrays.stream(Endpoint.values())
+                    .flatMap(endpoint -> Stream.generate(() -> endpoint).limit(endpoint.weight))
+                    .toArray(Endpoint[]::new);
+        }
+
+        private Endpoint pick(Random random) {
+            return wheel[random.nextInt(wheel.length)];
+        }
+
+        private HttpRequest request(Endpoint endpoint, Random random) {
+            long owner = dataset.userId(owners.sample(random));
+            long anyUser = dataset.userId(random.nextInt(dataset.spec().users()));
+            return switch (endpoint) {
+                case ITEMS_BY_OWNER -> get("/items", owner);
+                case ITEM_BY_ID -> get("/items/" + dataset.itemId(items.sample(random)), anyUser);
+                case ITEM_SEARCH -> get("/items/search?text=" + URLEncoder.encode(
+                        DatasetGenerator.NOUNS[words.sample(random)], StandardCharsets.UTF_8), anyUser);
+                case BOOKINGS_BY_OWNER -> get("/bookings/owner?state=ALL&limit=50", owner);
+                case BOOKINGS_BY_BOOKER -> get("/bookings?state=ALL&limit=50", anyUser);
+                case BOOKING_CREATE -> post("/bookings", newBooking(random), anyUser);
+                case BOOKING_BATCH -> post("/bookings/batch", Stream.generate(() -> newBooking(random))
+                        .limit(BATCH_SIZE)
+                        .collect(Collectors.joining(",", "[", "]")), anyUser);
+            };
+        }
+
+        private String newBooking(Random random) {
+            LocalDateTime start = LocalDateTime.now().plusYears(20)
+                    .plusHours(random.nextInt(24 * 365 * 50)).withNano(0);
+            return String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                    dataset.itemId(items.sample(random)), start, start.plusHours(1));
+        }
+
+        private HttpRequest post(String path, String body, long userId) {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("X-Sharer-User-Id", String.valueOf(userId))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest get(String path, long userId) {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("X-Sharer-User-Id", String.valueOf(userId))
+                    .GET()
+                    .build();
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+    }
+
+    private static final class Recorder {
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger non2xx = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        private Recorder(int capacity) {
+            latencies = new long[capacity];
+        }
+
+        private void record(long nanos, int status) {
+            latencies[count.getAndIncrement()] = nanos;
+            if (status < 0 || status >= 500) {
+                errors.incrementAndGet();
+            } else if (status >= 300) {
+                non2xx.incrementAndGet();
+            }
+        }
+
+        private EndpointStats stats(Endpoint endpoint, double seconds) {
+            int n = count.get();
+            long[] sorted = Arrays.copyOf(latencies, n);
+            Arrays.sort(sorted);
+            return new EndpointStats(endpoint, n, n / seconds, percentile(sorted, 0.5), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), n == 0 ? 0 : sorted[n - 1] / 1e6, non2xx.get(), errors.get());
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
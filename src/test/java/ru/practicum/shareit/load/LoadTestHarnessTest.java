@@ -0,0 +1,33 @@
+package ru.practicum.shareit.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Короткий прогон харнесса на маленьком наборе: все точки входа вызываются, чтение отвечает без ошибок.
+ * Поднимает приложение и шлет тысячу запросов, поэтому запускается только профилем load.
+ */
+@Tag("load")
+class LoadTestHarnessTest {
+
+    @Test
+    void run_SmallDataset_ShouldExerciseEveryEndpoint() throws Exception {
+        LoadTestHarness.Report report = LoadTestHarness.run(new LoadTestHarness.Options(
+                "jdbc:h2:mem:load-harness-test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "",
+                DatasetGenerator.Spec.of(50, 200, 1_000, 200), 4, 200, 1_200));
+        report.print(System.out);
+
+        assertEquals(1_200, report.endpoints().stream().mapToInt(LoadTestHarness.EndpointStats::requests).sum());
+        for (LoadTestHarness.Endpoint endpoint : LoadTestHarness.Endpoint.values()) {
+            LoadTestHarness.EndpointStats stats = report.get(endpoint);
+            assertTrue(stats.requests() > 0, endpoint.title());
+            assertEquals(0, stats.errors(), endpoint.title());
+            if (endpoint != LoadTestHarness.Endpoint.BOOKING_CREATE) {
+                assertEquals(0, stats.non2xx(), endpoint.title());
+            }
+            assertTrue(stats.p50Ms() <= stats.p99Ms() && stats.p99Ms() <= stats.p999Ms());
+        }
+    }
+}
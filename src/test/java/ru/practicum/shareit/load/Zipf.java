@@ -0,0 +1,33 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Распределение Ципфа на рангах {@code 0..size-1}: ранг 0 выпадает чаще всех. Им задается перекос
+ * набора данных — «крупные» владельцы, популярные вещи, частые слова.
+ */
+public final class Zipf {
+    private final double[] cumulative;
+
+    public Zipf(int size, double exponent) {
+        cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int sample(Random random) {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(position < 0 ? -position - 1 : position, cumulative.length - 1);
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
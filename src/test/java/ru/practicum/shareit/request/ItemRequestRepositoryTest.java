@@ -0,0 +1,114 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemAnswerView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ItemRequestRepositoryTest {
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private User requestor;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        requestor = em.persist(new User(null, "Requestor", "requestor@test.com"));
+        other = em.persist(new User(null, "Other", "other@test.com"));
+    }
+
+    private ItemRequest request(User author, long minutesAgo) {
+        return em.persist(new ItemRequest(null, "Нужна вещь", author, now.minusMinutes(minutesAgo)));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    void findPageByRequestor_ShouldSeekPastCursorInCreatedAndIdOrder() {
+        ItemRequest first = request(requestor, 1);
+        ItemRequest sameCreated = request(requestor, 1);
+        ItemRequest older = request(requestor, 5);
+        request(other, 0);
+        em.flush();
+        em.clear();
+
+        List<ItemRequest> page = itemRequestRepository.findPageByRequestor(requestor.getId(),
+                ItemRequestCursor.first().created(), ItemRequestCursor.first().id(), PageRequest.of(0, 2));
+        assertEquals(List.of(sameCreated.getId(), first.getId()), page.stream().map(ItemRequest::getId).toList());
+
+        ItemRequestCursor cursor = ItemRequestCursor.after(page.get(1));
+        List<ItemRequest> next = itemRequestRepository.findPageByRequestor(requestor.getId(),
+                cursor.created(), cursor.id(), PageRequest.of(0, 2));
+        assertEquals(List.of(older.getId()), next.stream().map(ItemRequest::getId).toList());
+    }
+
+    @Test
+    void findPageByRequestorNot_ShouldSkipOwnRequestsAndFetchRequestor() {
+        request(requestor, 1);
+        ItemRequest foreign = request(other, 2);
+        em.flush();
+        em.clear();
+        Statistics statistics = statistics();
+
+        List<ItemRequest> page = itemRequestRepository.findPageByRequestorNot(requestor.getId(),
+                ItemRequestCursor.first().created(), ItemRequestCursor.first().id(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(foreign.getId()), page.stream().map(ItemRequest::getId).toList());
+        assertEquals("Other", page.get(0).getRequestor().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAnswersByRequestIds_ShouldReturnItemsOfAllRequestsInSingleStatement() {
+        User owner = em.persist(new User(null, "Owner", "owner@test.com"));
+        ItemRequest first = request(requestor, 1);
+        ItemRequest second = request(other, 2);
+        ItemRequest unanswered = request(other, 3);
+        Item drill = em.persist(new Item(null, "Дрель", "Простая дрель", true, owner, first));
+        Item saw = em.persist(new Item(null, "Пила", "Ручная пила", true, owner, second));
+        em.persist(new Item(null, "Молоток", "Без запроса", true, owner, null));
+        em.flush();
+        em.clear();
+        Statistics statistics = statistics();
+
+        List<ItemAnswerView> answers = itemRepository.findAnswersByRequestIds(
+                List.of(first.getId(), second.getId(), unanswered.getId()));
+
+        assertEquals(List.of(drill.getId(), saw.getId()), answers.stream().map(ItemAnswerView::getId).toList());
+        assertEquals(first.getId(), answers.get(0).getRequestId());
+        assertEquals(owner.getId(), answers.get(1).getOwnerId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
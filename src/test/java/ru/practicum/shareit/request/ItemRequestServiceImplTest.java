@@ -0,0 +1,158 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.common.InvalidCursorException;
+import ru.practicum.shareit.common.SharerPrincipal;
+import ru.practicum.shareit.common.sse.SseHub;
+import ru.practicum.shareit.common.sse.SseTopic;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemAnswerView;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.exceptions.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.match.ItemRequestMatchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ItemRequestServiceImplTest {
+    private ItemRequestService itemRequestService;
+    private ItemRequestRepository itemRequestRepository;
+    private ItemRepository itemRepository;
+    private ItemRequestMatchIndex itemRequestMatchIndex;
+    private SseHub sseHub;
+
+    private User requestor;
+    private SharerPrincipal requestorPrincipal;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        itemRequestRepository = mock(ItemRequestRepository.class);
+        itemRepository = mock(ItemRepository.class);
+        itemRequestMatchIndex = mock(ItemRequestMatchIndex.class);
+        sseHub = mock(SseHub.class);
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, itemRequestMatchIndex,
+                sseHub);
+
+        requestor = new User(1L, "Requestor", "requestor@test.com");
+        requestorPrincipal = new SharerPrincipal(1L, "Requestor", "requestor@test.com");
+        now = LocalDateTime.now();
+    }
+
+    private ItemRequest request(long id, long minutesAgo) {
+        return new ItemRequest(id, "Запрос " + id, requestor, now.minusMinutes(minutesAgo));
+    }
+
+    private ItemAnswerView answer(Long requestId, Long itemId) {
+        ItemAnswerView view = mock(ItemAnswerView.class);
+        when(view.getRequestId()).thenReturn(requestId);
+        when(view.getId()).thenReturn(itemId);
+        when(view.getName()).thenReturn("Item " + itemId);
+        when(view.getOwnerId()).thenReturn(2L);
+        return view;
+    }
+
+    @Test
+    void create_ShouldSaveRequestOfPrincipal() {
+        when(itemRequestRepository.save(any(ItemRequest.class))).thenAnswer(invocation -> {
+            ItemRequest saved = invocation.getArgument(0);
+            saved.setId(10L);
+            return saved;
+        });
+
+        ItemRequestDto result = itemRequestService.create(new ItemRequestCreateDto("Нужна дрель"), requestorPrincipal);
+
+        assertEquals(10L, result.getId());
+        assertEquals("Нужна дрель", result.getDescription());
+        assertEquals(requestor.getId(), result.getRequestor().getId());
+        assertNotNull(result.getCreated());
+        assertTrue(result.getItems().isEmpty());
+        verify(itemRequestMatchIndex).add(any(ItemRequest.class));
+        verify(sseHub).broadcast(SseTopic.REQUESTS, requestor.getId(), ItemRequestServiceImpl.ITEM_REQUEST_EVENT,
+                10L, result);
+    }
+
+    @Test
+    void findOwn_ShouldAttachAnswersWithSingleQueryAndReturnNextCursor() {
+        ItemRequest newest = request(3L, 1);
+        ItemRequest middle = request(2L, 2);
+        ItemRequest oldest = request(1L, 3);
+        when(itemRequestRepository.findPageByRequestor(eq(1L), any(), any(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(newest, middle, oldest));
+        List<ItemAnswerView> answers = List.of(answer(3L, 100L), answer(3L, 101L), answer(2L, 102L));
+        when(itemRepository.findAnswersByRequestIds(List.of(3L, 2L))).thenReturn(answers);
+
+        ItemRequestPage page = itemRequestService.findOwn(requestorPrincipal, null, 2);
+
+        assertEquals(List.of(3L, 2L), page.getRequests().stream().map(ItemRequestDto::getId).toList());
+        assertEquals(List.of(100L, 101L), page.getRequests().get(0).getItems().stream().map(i -> i.getId()).toList());
+        assertEquals(1, page.getRequests().get(1).getItems().size());
+        assertEquals(ItemRequestCursor.after(middle), ItemRequestCursor.decode(page.getNextCursor()));
+        verify(itemRepository, times(1)).findAnswersByRequestIds(anyCollection());
+    }
+
+    @Test
+    void findOthers_ShouldPassCursorPositionAndOmitNextCursorOnLastPage() {
+        ItemRequest last = request(5L, 10);
+        ItemRequestCursor cursor = new ItemRequestCursor(now, 7L);
+        when(itemRequestRepository.findPageByRequestorNot(1L, now, 7L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(last));
+        when(itemRepository.findAnswersByRequestIds(List.of(5L))).thenReturn(List.of());
+
+        ItemRequestPage page = itemRequestService.findOthers(requestorPrincipal, cursor.encode(), 2);
+
+        assertEquals(1, page.getRequests().size());
+        assertTrue(page.getRequests().get(0).getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findOthers_EmptyPage_ShouldNotQueryAnswers() {
+        when(itemRequestRepository.findPageByRequestorNot(eq(1L), any(), any(), any())).thenReturn(List.of());
+
+        ItemRequestPage page = itemRequestService.findOthers(requestorPrincipal, null, 10);
+
+        assertTrue(page.getRequests().isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void findOwn_InvalidCursor_ShouldThrowException() {
+        assertThrows(InvalidCursorException.class, () -> itemRequestService.findOwn(requestorPrincipal, "???", 10));
+    }
+
+    @Test
+    void findById_ShouldReturnRequestWithAnswers() {
+        ItemRequest request = request(4L, 5);
+        when(itemRequestRepository.findById(4L)).thenReturn(Optional.of(request));
+        List<ItemAnswerView> answers = List.of(answer(4L, 200L));
+        when(itemRepository.findAnswersByRequestIds(List.of(4L))).thenReturn(answers);
+
+        ItemRequestDto result = itemRequestService.findById(4L);
+
+        assertEquals(4L, result.getId());
+        assertEquals(200L, result.getItems().get(0).getId());
+        assertEquals(2L, result.getItems().get(0).getOwnerId());
+    }
+
+    @Test
+    void findById_NotFound_ShouldThrowException() {
+        when(itemRequestRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ItemRequestNotFoundException.class, () -> itemRequestService.findById(99L));
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ItemRequestMatchIndexTest {
+    private ItemRequestRepository itemRequestRepository;
+    private ItemRequestMatchIndex index;
+    private User requestor;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        itemRequestRepository = mock(ItemRequestRepository.class);
+        index = new ItemRequestMatchIndex(itemRequestRepository, true, 500);
+        requestor = new User(1L, "Requestor", "requestor@test.com");
+        other = new User(2L, "Other", "other@test.com");
+    }
+
+    private ItemRequest request(long id, User author, String description) {
+        return new ItemRequest(id, description, author, LocalDateTime.now());
+    }
+
+    private List<Long> ids(List<ItemRequestMatch> matches) {
+        return matches.stream().map(ItemRequestMatch::requestId).toList();
+    }
+
+    @Test
+    void match_ShouldRankByMatchedTermsThenNewest() {
+        index.add(request(1L, requestor, "Нужна дрель"));
+        index.add(request(2L, requestor, "Ищу аккумуляторную дрель на выходные"));
+        index.add(request(3L, requestor, "Возьму дрели"));
+        index.add(request(4L, requestor, "Нужна лестница"));
+
+        List<ItemRequestMatch> matches = index.match("Дрель аккумуляторная", 99L, 10);
+
+        assertEquals(List.of(2L, 3L, 1L), ids(matches));
+        assertEquals(2, matches.get(0).score());
+    }
+
+    @Test
+    void match_ShouldSkipRequestsOfOwner() {
+        index.add(request(1L, requestor, "Нужна дрель"));
+        index.add(request(2L, other, "Нужна дрель"));
+
+        assertEquals(List.of(2L), ids(index.match("Дрель", requestor.getId(), 10)));
+    }
+
+    @Test
+    void match_ShouldRespectLimit() {
+        for (long id = 1; id <= 20; id++) {
+            index.add(request(id, requestor, "Нужна пила"));
+        }
+
+        assertEquals(List.of(20L, 19L, 18L), ids(index.match("пила", 99L, 3)));
+    }
+
+    @Test
+    void remove_FulfilledRequest_ShouldNoLongerMatch() {
+        index.add(request(1L, requestor, "Нужна дрель"));
+        index.add(request(2L, requestor, "Нужна дрель"));
+
+        index.remove(1L);
+
+        assertEquals(List.of(2L), ids(index.match("дрель", 99L, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuild_ShouldLoadOpenRequestsPageByPage() {
+        when(itemRequestRepository.findOpenAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(request(5L, requestor, "Нужен молоток"), request(9L, other, "Нужна дрель")));
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(9L), ids(index.match("дрель", 99L, 10)));
+        verify(itemRequestRepository, times(1)).findOpenAfter(any(), any());
+    }
+
+    @Test
+    void disabled_ShouldIgnoreUpdatesAndReturnNothing() {
+        ItemRequestMatchIndex disabled = new ItemRequestMatchIndex(itemRequestRepository, false, 500);
+        disabled.add(request(1L, requestor, "Нужна дрель"));
+        disabled.rebuild();
+
+        assertTrue(disabled.match("дрель", 99L, 10).isEmpty());
+        verifyNoInteractions(itemRequestRepository);
+    }
+}
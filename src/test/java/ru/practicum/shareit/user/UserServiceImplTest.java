@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.user.cache.UnknownUserCache;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
@@ -10,6 +13,7 @@ import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,7 +25,8 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, new UnknownUserCache(100, 5_000, new SimpleMeterRegistry()),
+                mock(ApplicationEventPublisher.class));
     }
 
     @Test
@@ -55,7 +60,7 @@ class UserServiceImplTest {
     @Test
     void findById_ExistingUser_ShouldReturnUser() {
         User user = new User(1L, "Test User", "test@test.com");
-        when(userRepository.getUserById(1L)).thenReturn(user);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         UserDto result = userService.findById(1L);
 
@@ -67,7 +72,7 @@ class UserServiceImplTest {
 
     @Test
     void findById_NonExistingUser_ShouldThrowException() {
-        when(userRepository.getUserById(999L)).thenReturn(null);
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.findById(999L));
     }
@@ -144,4 +149,26 @@ class UserServiceImplTest {
         assertThrows(UserNotFoundException.class, () -> userService.delete(999L));
         verify(userRepository, never()).delete(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findById_UnknownUser_ShouldCacheAbsence() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.findById(99L));
+        assertThrows(UserNotFoundException.class, () -> userService.findById(99L));
+        verify(userRepository, times(1)).findById(99L);
+    }
+
+    @Test
+    void create_ShouldEvictCachedAbsence() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> userService.findById(1L));
+        User savedUser = new User(1L, "Test User", "test@test.com");
+        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(savedUser));
+
+        userService.create(new UserCreateDto("Test User", "test@test.com"));
+
+        assertEquals("Test User", userService.findById(1L).getName());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnknownUserCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private UnknownUserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UnknownUserCache(2, 100, meterRegistry, now::get);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "users").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void markUnknown_ShouldHoldForNegativeTtl() {
+        cache.markUnknown(7L, cache.stamp(7L));
+
+        assertTrue(cache.isUnknown(7L));
+        now.addAndGet(100_000_001L);
+        assertFalse(cache.isUnknown(7L));
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    @Test
+    void markUnknown_AfterEvict_ShouldNotCacheStaleAbsence() {
+        long stamp = cache.stamp(7L);
+        cache.evict(7L);
+
+        cache.markUnknown(7L, stamp);
+
+        assertFalse(cache.isUnknown(7L));
+    }
+
+    @Test
+    void markUnknown_OverMaxSize_ShouldStayWithinBound() {
+        for (long id = 1; id <= 10; id++) {
+            cache.markUnknown(id, cache.stamp(id));
+        }
+
+        assertEquals(2, cache.size());
+    }
+}